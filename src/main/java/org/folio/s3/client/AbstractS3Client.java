@@ -0,0 +1,1053 @@
+package org.folio.s3.client;
+
+import static org.apache.commons.lang3.StringUtils.EMPTY;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+import static org.apache.commons.lang3.StringUtils.replaceOnce;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.folio.s3.exception.S3ClientException;
+
+import com.google.common.collect.Lists;
+
+import io.minio.http.Method;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Operations shared by the S3 client implementations, built on a small set of SDK-specific
+ * requests: multipart upload targets, ranged reads, single and batch deletes, listing pages,
+ * object size and presigned URLs. Each implementation talks to S3 through its own SDK only.
+ */
+@Log4j2
+// 2142: we wrap and rethrow InterruptedException as S3ClientException
+@SuppressWarnings("java:S2142")
+public abstract class AbstractS3Client implements FolioS3Client, FolioS3AsyncClient {
+
+  protected static final String DELIMITER = "/";
+  protected static final int EXPIRATION_TIME_IN_MINUTES = 10;
+  private static final int SHUTDOWN_TIMEOUT_IN_SECONDS = 30;
+  private static final int MIN_PART_SIZE = (int) MultipartComposer.MIN_PART_SIZE;
+  private static final int DEFAULT_MAX_PARTS_IN_FLIGHT = 4;
+  private static final int DEFAULT_MAX_CONCURRENT_DELETES = 4;
+  private static final int DEFAULT_MAX_CONCURRENT_COPIES = 8;
+  private static final int DEFAULT_APPEND_LOG_COMPACTION_THRESHOLD = 32;
+  private static final long DEFAULT_BUFFER_POOL_SIZE = 64L * 1024 * 1024;
+  /**
+   * S3 limit of keys in a single DeleteObjects request.
+   */
+  protected static final int MAX_KEYS_PER_DELETE = 1000;
+  protected final String bucket;
+  protected final String subPath;
+  protected final ExecutorService executor;
+  protected final int partSize;
+  protected final int maxPartsInFlight;
+  protected final int maxConcurrentDeletes;
+  protected final int maxConcurrentCopies;
+  protected final int appendLogCompactionThreshold;
+  protected final int warmUpConnections;
+  protected final PartBufferPool bufferPool;
+  protected final MemoryBudget memoryBudget;
+  /**
+   * Releases a view created by {@link #withSubPath(String, Runnable)} on close, {@code null} for
+   * a client owning its transport.
+   */
+  private final Runnable release;
+
+  protected AbstractS3Client(S3ClientProperties properties) {
+    bucket = properties.getBucket();
+    subPath = properties.getSubPath();
+    executor = createExecutor(properties);
+    partSize = Math.max(MIN_PART_SIZE, Objects.requireNonNullElse(properties.getPartSize(), MIN_PART_SIZE));
+    maxPartsInFlight = Objects.requireNonNullElse(properties.getMaxPartsInFlight(), DEFAULT_MAX_PARTS_IN_FLIGHT);
+    maxConcurrentDeletes = Objects.requireNonNullElse(properties.getMaxConcurrentDeletes(),
+        DEFAULT_MAX_CONCURRENT_DELETES);
+    maxConcurrentCopies = Objects.requireNonNullElse(properties.getMaxConcurrentCopies(),
+        DEFAULT_MAX_CONCURRENT_COPIES);
+    appendLogCompactionThreshold = Math.max(2, Objects.requireNonNullElse(properties.getAppendLogCompactionThreshold(),
+        DEFAULT_APPEND_LOG_COMPACTION_THRESHOLD));
+    warmUpConnections = Objects.requireNonNullElse(properties.getWarmUpConnections(), 0);
+    bufferPool = new PartBufferPool(useDirectBuffers(),
+        Objects.requireNonNullElse(properties.getBufferPoolSize(), DEFAULT_BUFFER_POOL_SIZE));
+    memoryBudget = properties.getMaxBufferedBytes() == null
+      ? MemoryBudget.unlimited()
+      : new MemoryBudget(properties.getMaxBufferedBytes());
+    release = null;
+  }
+
+  /**
+   * Creates a view of the client with another sub path, sharing its SDK client, upload executor,
+   * part buffers and memory budget.
+   *
+   * @param shared  the client owning the transport
+   * @param subPath the sub path of the view, may be {@code null}
+   * @param release called instead of closing anything when the view is closed
+   */
+  protected AbstractS3Client(AbstractS3Client shared, String subPath, Runnable release) {
+    bucket = shared.bucket;
+    this.subPath = subPath;
+    executor = shared.executor;
+    partSize = shared.partSize;
+    maxPartsInFlight = shared.maxPartsInFlight;
+    maxConcurrentDeletes = shared.maxConcurrentDeletes;
+    maxConcurrentCopies = shared.maxConcurrentCopies;
+    appendLogCompactionThreshold = shared.appendLogCompactionThreshold;
+    warmUpConnections = shared.warmUpConnections;
+    bufferPool = shared.bufferPool;
+    memoryBudget = shared.memoryBudget;
+    this.release = release;
+  }
+
+  /**
+   * Creates the executor that runs blocking stream I/O of uploads (reading the caller's input
+   * streams and local files) off the caller and SDK threads.
+   */
+  static ExecutorService createExecutor(S3ClientProperties properties) {
+    int threads = Objects.requireNonNullElseGet(properties.getUploadThreadPoolSize(),
+        () -> 2 * Runtime.getRuntime().availableProcessors());
+    log.debug("Creating upload executor with {} threads", threads);
+    return Executors.newFixedThreadPool(threads, Thread.ofPlatform()
+      .name("folio-s3-upload-", 0)
+      .daemon()
+      .factory());
+  }
+
+  /**
+   * Whether part buffers are allocated off-heap. Called from the constructor, so it must not
+   * depend on instance state.
+   */
+  protected abstract boolean useDirectBuffers();
+
+  /**
+   * Creates a view of this client with another sub path, see
+   * {@link #AbstractS3Client(AbstractS3Client, String, Runnable)}.
+   */
+  protected abstract AbstractS3Client withSubPath(String subPath, Runnable release);
+
+  /**
+   * Closes the SDK client and its connections, called by {@link #close()} of the client owning
+   * the transport after the upload executor has terminated.
+   */
+  protected abstract void closeTransport();
+
+  /**
+   * Creates the target of a multipart upload to the file.
+   *
+   * @param path         the path to the file on S3-compatible storage
+   * @param extraOptions additional metadata to store with the file, may be {@code null}
+   */
+  protected abstract MultipartUploadTarget createUploadTarget(String path, PutObjectAdditionalOptions extraOptions);
+
+  /**
+   * Opens the byte range of the object, to its end if {@code length} is {@code null}.
+   */
+  protected abstract CompletableFuture<InputStream> readRangeAsync(String path, long offset, Long length);
+
+  /**
+   * Sends one DeleteObjects request. The returned future must not fail, a failed request reports
+   * all of its paths as failed.
+   */
+  protected abstract CompletableFuture<RemoveResult> removeBatchAsync(List<String> paths);
+
+  /**
+   * Checks whether the bucket exists with a HeadBucket request, looking up and caching the
+   * bucket region first where the SDK needs it.
+   */
+  protected abstract CompletableFuture<Boolean> bucketExistsAsync();
+
+  /**
+   * Requests one ListObjectsV2 page.
+   *
+   * @param prefix            the key prefix, including the sub path
+   * @param recursive         whether to list without a delimiter
+   * @param maxKeys           the maximum number of keys of the page, {@code null} for the default
+   * @param startAfter        the key to start listing after, including the sub path, may be {@code null}
+   * @param continuationToken the token of the previous page, {@code null} for the first page
+   */
+  protected abstract CompletableFuture<ListPage> listPageAsync(String prefix, boolean recursive, Integer maxKeys,
+      String startAfter, String continuationToken);
+
+  /**
+   * One page of a listing: objects first, then common prefixes, the same order as the MinIO
+   * listObjects iterator. Keys include the sub path.
+   *
+   * @param entries               the objects and common prefixes of the page
+   * @param truncated             whether more pages follow
+   * @param nextContinuationToken the token requesting the next page
+   */
+  protected record ListPage(List<ObjectInfo> entries, boolean truncated, String nextContinuationToken) {
+  }
+
+  @Override
+  public void warmUp() {
+    await(warmUpAsync());
+  }
+
+  /**
+   * Sends one bucket request, which resolves the endpoint, fetches credentials and looks up the
+   * bucket region, then {@link #warmUpConnections} concurrent ones. A pooled connection is busy
+   * until its response is read, so each concurrent request uses a connection of its own.
+   */
+  @Override
+  public CompletableFuture<Void> warmUpAsync() {
+    if (StringUtils.isBlank(bucket)) {
+      return CompletableFuture.completedFuture(null);
+    }
+    int connections = Math.max(1, warmUpConnections);
+    var future = async(this::bucketExistsAsync)
+      .thenCompose(exists -> CompletableFuture.allOf(IntStream.range(0, connections)
+        .mapToObj(i -> async(this::bucketExistsAsync))
+        .toArray(CompletableFuture[]::new)));
+    return withErrorMessage(future, "Error warming up client of bucket: " + bucket);
+  }
+
+  /**
+   * Starts the warm-up in the background if {@link S3ClientProperties#getWarmUpConnections()} is
+   * set. Called by the subclasses at the end of their construction.
+   */
+  protected void warmUpInBackground() {
+    if (warmUpConnections <= 0) {
+      return;
+    }
+    log.info("Warming up {} connections to bucket {}", warmUpConnections, bucket);
+    warmUpAsync().whenComplete((v, e) -> {
+      if (e != null) {
+        log.warn("Cannot warm up client: {}", unwrap(e).getMessage());
+      } else {
+        log.debug("Client of bucket {} warmed up", bucket);
+      }
+    });
+  }
+
+  @Override
+  public String upload(String path, String filename) {
+    return await(uploadAsync(path, filename));
+  }
+
+  /**
+   * Splits files larger than a part into slices that are uploaded as parts, up to
+   * {@link S3ClientProperties#getMaxPartsInFlight()} at once, each read from its own slice of the
+   * file so no stream has to be consumed in order.
+   */
+  @Override
+  public CompletableFuture<String> uploadAsync(String path, String filename) {
+    var file = Path.of(path);
+    var target = createUploadTarget(filename, null);
+    var future = async(() -> {
+      long size = Files.size(file);
+      long uploadPartSize = S3OutputStream.partSizeFor(size, partSize);
+      if (size <= uploadPartSize) {
+        return target.putObject(file);
+      }
+      return target.createMultipartUpload()
+        .thenCompose(uploadId -> target.completeOrAbort(uploadId,
+            uploadFileParts(target, uploadId, file, size, uploadPartSize)));
+    }).thenApply(v -> addSubPathIfPresent(filename));
+    return withErrorMessage(future, "Cannot upload file: " + path);
+  }
+
+  private CompletableFuture<List<String>> uploadFileParts(MultipartUploadTarget target, String uploadId, Path file,
+      long size, long uploadPartSize) {
+    int parts = (int) Math.ceilDiv(size, uploadPartSize);
+    var eTags = new String[parts];
+    return forEachAsync(IntStream.rangeClosed(1, parts).boxed().toList(), maxPartsInFlight, partNumber -> {
+      long offset = (partNumber - 1) * uploadPartSize;
+      return target.uploadPart(uploadId, partNumber, file, offset, Math.min(uploadPartSize, size - offset))
+        .thenAccept(eTag -> eTags[partNumber - 1] = eTag);
+    }).thenApply(v -> Arrays.asList(eTags));
+  }
+
+  @Override
+  public String write(String path, InputStream is) {
+    return await(writeAsync(path, is));
+  }
+
+  @Override
+  public String write(String path, InputStream is, long size) {
+    return await(writeAsync(path, is, size));
+  }
+
+  @Override
+  public String write(String path, InputStream is, long size, PutObjectAdditionalOptions extraOptions) {
+    return await(writeAsync(path, is, size, extraOptions));
+  }
+
+  @Override
+  public CompletableFuture<String> writeAsync(String path, InputStream is) {
+    return writeAsync(path, is, -1L, null);
+  }
+
+  @Override
+  public CompletableFuture<String> writeAsync(String path, InputStream is, long size) {
+    return writeAsync(path, is, size, null);
+  }
+
+  /**
+   * Uploads the stream as a multipart upload with up to
+   * {@link S3ClientProperties#getMaxPartsInFlight()} parts in flight. A known size picks a part
+   * size that keeps large objects at a reasonable number of parts; a size {@code <= 0} is
+   * treated as unknown.
+   */
+  @Override
+  public CompletableFuture<String> writeAsync(String path, InputStream is, long size,
+      PutObjectAdditionalOptions extraOptions) {
+    log.debug("Writing {} as multipart upload", path);
+    var target = createUploadTarget(path, extraOptions);
+    return withErrorMessage(uploadStreamAsync(path, target, is, size), "Cannot write stream: " + path);
+  }
+
+  /**
+   * Reads the stream on the upload executor and uploads it to the target, part by part. The
+   * stream is closed when the upload completes.
+   *
+   * @param path   the path to the file on S3-compatible storage, returned by the future
+   * @param target the upload target of the object
+   * @param is     the input stream to upload
+   * @param size   the number of bytes to upload, {@code <= 0} if unknown
+   * @return future with the path to the file
+   */
+  protected CompletableFuture<String> uploadStreamAsync(String path, MultipartUploadTarget target, InputStream is,
+      long size) {
+    int uploadPartSize = size > 0 ? S3OutputStream.partSizeFor(size, partSize) : partSize;
+    var out = new S3OutputStream(target, uploadPartSize, maxPartsInFlight, bufferPool, memoryBudget);
+    return transferPartsAsync(out, is, size > 0 ? size : Long.MAX_VALUE, uploadPartSize, 0)
+      .thenApplyAsync(transferred -> {
+        try (is; out) {
+          if (size > 0 && transferred < size) {
+            out.abort();
+            throw new IOException("Stream ended before %d bytes have been read".formatted(size));
+          }
+          return path;
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }, executor)
+      .whenComplete((p, e) -> {
+        if (e != null) {
+          out.abort();
+          IOUtils.closeQuietly(is);
+        }
+      });
+  }
+
+  /**
+   * Reads the stream into the output stream one part at a time. The memory of each part is taken
+   * from the budget before its read is scheduled, so an executor thread never waits for memory
+   * held by tasks queued behind it on the same executor.
+   *
+   * @param remaining   the number of bytes left to read, {@link Long#MAX_VALUE} if unknown
+   * @param transferred the number of bytes read so far
+   * @return future with the number of bytes read, less than requested only if the stream ended
+   */
+  private CompletableFuture<Long> transferPartsAsync(S3OutputStream out, InputStream is, long remaining,
+      int uploadPartSize, long transferred) {
+    long limit = Math.min(uploadPartSize, remaining);
+    return out.reserveCapacityAsync()
+      .thenApplyAsync(v -> {
+        try {
+          return out.transferFrom(is, limit);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }, executor)
+      .thenCompose(n -> n < limit || n == remaining
+        ? CompletableFuture.completedFuture(transferred + n)
+        : transferPartsAsync(out, is, remaining - n, uploadPartSize, transferred + n));
+  }
+
+  @Override
+  public String compose(String destination, List<String> sourceKeys) {
+    return compose(destination, sourceKeys, null);
+  }
+
+  @Override
+  public String compose(String destination, List<String> sourceKeys, PutObjectAdditionalOptions extraOptions) {
+    return await(composeAsync(destination, sourceKeys, extraOptions));
+  }
+
+  @Override
+  public CompletableFuture<String> composeAsync(String destination, List<String> sourceKeys) {
+    return composeAsync(destination, sourceKeys, null);
+  }
+
+  /**
+   * Composes the sources as one multipart upload, up to
+   * {@link S3ClientProperties#getMaxConcurrentCopies()} parts at once. The source sizes are looked
+   * up first, with the same parallelism, to plan the parts: sources of at least 5 MiB are copied
+   * server-side, adjacent smaller ones are downloaded and uploaded together as one part. More
+   * than 10,000 parts are composed through intermediate objects next to the destination, named
+   * {@code <destination>.compose-<random UUID>/<level>-<index>}, which are removed afterwards.
+   */
+  @Override
+  public CompletableFuture<String> composeAsync(String destination, List<String> sourceKeys,
+      PutObjectAdditionalOptions extraOptions) {
+    var sizes = new long[sourceKeys.size()];
+    var future = forEachAsync(IntStream.range(0, sourceKeys.size()).boxed().toList(), maxConcurrentCopies,
+        i -> getSizeAsync(sourceKeys.get(i)).thenAccept(size -> sizes[i] = size))
+      .thenCompose(v -> new MultipartComposer(new ComposerStorage(), maxConcurrentCopies, bufferPool, memoryBudget,
+            executor)
+        .compose(createUploadTarget(destination, extraOptions), IntStream.range(0, sourceKeys.size())
+          .mapToObj(i -> new MultipartComposer.Source(sourceKeys.get(i), sizes[i]))
+          .toList(), destination + ".compose-" + UUID.randomUUID()))
+      .thenApply(v -> destination);
+    return withErrorMessage(future, "Error composing sources=[%s] into %s".formatted(sourceKeys.stream()
+      .collect(Collectors.joining(",")), destination));
+  }
+
+  @Override
+  public String remove(String path) {
+    return await(removeAsync(path));
+  }
+
+  @Override
+  public List<String> remove(String... paths) {
+    return await(removeAsync(paths));
+  }
+
+  @Override
+  public CompletableFuture<List<String>> removeAsync(String... paths) {
+    return removeAllAsync(Arrays.asList(paths)).thenApply(result -> {
+      if (result.hasFailures()) {
+        var first = result.failed().entrySet().iterator().next();
+        throw new S3ClientException("Error deleting %d of %d files, %s: %s".formatted(result.failed().size(),
+            paths.length, first.getKey(), first.getValue()));
+      }
+      return Arrays.stream(paths).toList();
+    });
+  }
+
+  @Override
+  public RemoveResult removeAll(Collection<String> paths) {
+    return await(removeAllAsync(paths));
+  }
+
+  /**
+   * Splits the paths into DeleteObjects requests of up to {@value #MAX_KEYS_PER_DELETE} keys and
+   * sends up to {@link S3ClientProperties#getMaxConcurrentDeletes()} of them at once.
+   */
+  @Override
+  public CompletableFuture<RemoveResult> removeAllAsync(Collection<String> paths) {
+    var batches = Lists.partition(List.copyOf(paths), MAX_KEYS_PER_DELETE);
+    var results = new RemoveResult[batches.size()];
+    return forEachAsync(IntStream.range(0, batches.size()).boxed().toList(), maxConcurrentDeletes,
+        i -> removeBatchAsync(batches.get(i)).thenAccept(result -> results[i] = result))
+      .thenApply(v -> {
+        List<String> removed = new ArrayList<>(paths.size());
+        Map<String, String> failed = new HashMap<>();
+        for (var result : results) {
+          removed.addAll(result.removed());
+          failed.putAll(result.failed());
+        }
+        return new RemoveResult(removed, failed);
+      });
+  }
+
+  @Override
+  public long removeRecursive(String path) {
+    return removeRecursive(path, result -> {
+    });
+  }
+
+  /**
+   * Deletes every listing page as soon as it arrives, with up to
+   * {@link S3ClientProperties#getMaxConcurrentDeletes()} DeleteObjects requests in flight. The
+   * listing waits while all of them are in flight, so at most that many pages are held in memory.
+   */
+  @Override
+  public long removeRecursive(String path, Consumer<RemoveResult> listener) {
+    var permits = new Semaphore(maxConcurrentDeletes);
+    var removed = new AtomicLong();
+    var listenerFailure = new AtomicReference<RuntimeException>();
+    try {
+      var pages = listPages(path, true);
+      while (pages.hasNext() && listenerFailure.get() == null) {
+        var page = pages.next();
+        if (page.isEmpty()) {
+          continue;
+        }
+        permits.acquire();
+        removeBatchAsync(page).thenAccept(result -> {
+          try {
+            removed.addAndGet(result.removed().size());
+            synchronized (listener) {
+              listener.accept(result);
+            }
+          } catch (RuntimeException e) {
+            listenerFailure.compareAndSet(null, e);
+          } finally {
+            permits.release();
+          }
+        });
+      }
+      // wait for the batches in flight
+      permits.acquire(maxConcurrentDeletes);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new S3ClientException("Interrupted while removing files under " + path, e);
+    }
+    if (listenerFailure.get() != null) {
+      throw listenerFailure.get();
+    }
+    return removed.get();
+  }
+
+  private CompletableFuture<List<String>> listAsync(String path, boolean recursive, Integer maxKeys,
+      String startAfter) {
+    return listAsync(path, recursive, maxKeys, startAfter, this::toPaths);
+  }
+
+  private <T> CompletableFuture<List<T>> listAsync(String path, boolean recursive, Integer maxKeys,
+      String startAfter, Function<ListPage, List<T>> mapper) {
+    List<T> list = new ArrayList<>();
+    var future = listPagesAsync(addSubPathIfPresent(path), recursive, maxKeys, startAfter, null, mapper, list)
+      .thenApply(v -> list);
+    return withErrorMessage(future, "Error getting list of objects for path: " + path);
+  }
+
+  private <T> CompletableFuture<Void> listPagesAsync(String prefix, boolean recursive, Integer maxKeys,
+      String startAfter, String continuationToken, Function<ListPage, List<T>> mapper, List<T> list) {
+    return async(() -> listPageAsync(prefix, recursive, maxKeys, startAfter, continuationToken))
+      .thenCompose(page -> {
+        list.addAll(mapper.apply(page));
+        return page.truncated()
+          ? listPagesAsync(prefix, recursive, maxKeys, startAfter, page.nextContinuationToken(), mapper, list)
+          : CompletableFuture.completedFuture(null);
+      });
+  }
+
+  private List<String> toPaths(ListPage page) {
+    return page.entries()
+      .stream()
+      .map(entry -> removeSubPathIfPresent(entry.key()))
+      .toList();
+  }
+
+  private List<ObjectInfo> toObjectInfos(ListPage page) {
+    return page.entries()
+      .stream()
+      .map(entry -> new ObjectInfo(removeSubPathIfPresent(entry.key()), entry.size(), entry.etag(),
+          entry.lastModified(), entry.directory()))
+      .toList();
+  }
+
+  private Stream<String> listAsStream(String path, boolean recursive) {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(listPages(path, recursive), Spliterator.ORDERED),
+        false)
+      .flatMap(List::stream);
+  }
+
+  /**
+   * Returns an iterator over the listing pages, each page is requested by {@code next()}.
+   */
+  private Iterator<List<String>> listPages(String path, boolean recursive) {
+    return new Iterator<>() {
+      private final String prefix = addSubPathIfPresent(path);
+      private String continuationToken;
+      private boolean truncated = true;
+
+      @Override
+      public boolean hasNext() {
+        return truncated;
+      }
+
+      @Override
+      public List<String> next() {
+        if (!truncated) {
+          throw new NoSuchElementException();
+        }
+        var page = await(withErrorMessage(async(() -> listPageAsync(prefix, recursive, null, null,
+            continuationToken)), "Error getting list of objects for path: " + path));
+        truncated = page.truncated();
+        continuationToken = page.nextContinuationToken();
+        return toPaths(page);
+      }
+    };
+  }
+
+  @Override
+  public List<String> list(String path) {
+    return await(listAsync(path));
+  }
+
+  @Override
+  public List<String> listRecursive(String path) {
+    return await(listRecursiveAsync(path));
+  }
+
+  @Override
+  public List<String> list(String path, int maxKeys, String startAfter) {
+    return await(listAsync(path, maxKeys, startAfter));
+  }
+
+  @Override
+  public List<ObjectInfo> listWithMetadata(String path) {
+    return await(listWithMetadataAsync(path));
+  }
+
+  @Override
+  public List<ObjectInfo> listRecursiveWithMetadata(String path) {
+    return await(listRecursiveWithMetadataAsync(path));
+  }
+
+  @Override
+  public List<ObjectInfo> listWithMetadata(String path, int maxKeys, String startAfter) {
+    return await(listWithMetadataAsync(path, maxKeys, startAfter));
+  }
+
+  @Override
+  public CompletableFuture<List<ObjectInfo>> listWithMetadataAsync(String path) {
+    return listAsync(path, false, null, null, this::toObjectInfos);
+  }
+
+  @Override
+  public CompletableFuture<List<ObjectInfo>> listRecursiveWithMetadataAsync(String path) {
+    return listAsync(path, true, null, null, this::toObjectInfos);
+  }
+
+  @Override
+  public CompletableFuture<List<ObjectInfo>> listWithMetadataAsync(String path, int maxKeys, String startAfter) {
+    return listAsync(path, false, maxKeys, isEmpty(startAfter) ? null : addSubPathIfPresent(startAfter),
+        this::toObjectInfos);
+  }
+
+  @Override
+  public Stream<String> listAsStream(String path) {
+    return listAsStream(path, false);
+  }
+
+  @Override
+  public Stream<String> listRecursiveAsStream(String path) {
+    return listAsStream(path, true);
+  }
+
+  @Override
+  public CompletableFuture<List<String>> listAsync(String path) {
+    return listAsync(path, false, 1, null);
+  }
+
+  @Override
+  public CompletableFuture<List<String>> listRecursiveAsync(String path) {
+    return listAsync(path, true, null, null);
+  }
+
+  @Override
+  public CompletableFuture<List<String>> listAsync(String path, int maxKeys, String startAfter) {
+    return listAsync(path, false, maxKeys, isEmpty(startAfter) ? null : addSubPathIfPresent(startAfter));
+  }
+
+  @Override
+  public InputStream read(String path) {
+    return await(readAsync(path));
+  }
+
+  @Override
+  public InputStream read(String path, long offset, long length) {
+    return await(readAsync(path, offset, length));
+  }
+
+  @Override
+  public InputStream read(String path, long offset) {
+    return await(readAsync(path, offset));
+  }
+
+  @Override
+  public CompletableFuture<InputStream> readAsync(String path, long offset, long length) {
+    checkRange(offset, length);
+    if (length == 0) {
+      return CompletableFuture.completedFuture(InputStream.nullInputStream());
+    }
+    return readRangeAsync(path, offset, length);
+  }
+
+  @Override
+  public CompletableFuture<InputStream> readAsync(String path, long offset) {
+    checkRange(offset, 0);
+    return readRangeAsync(path, offset, null);
+  }
+
+  protected static void checkRange(long offset, long length) {
+    if (offset < 0 || length < 0) {
+      throw new IllegalArgumentException("offset and length must not be negative");
+    }
+  }
+
+  @Override
+  public Path download(String path, Path target) {
+    return await(downloadAsync(path, target));
+  }
+
+  /**
+   * Splits the object into ranges sized like upload parts and fetches up to
+   * {@link S3ClientProperties#getMaxPartsInFlight()} of them at once, each written at its
+   * position in the local file. The local file is only created or truncated once the size of
+   * the object is known, and removed again if the download fails after that.
+   */
+  @Override
+  public CompletableFuture<Path> downloadAsync(String path, Path target) {
+    var future = getSizeAsync(path).thenCompose(size -> {
+      FileChannel channel;
+      try {
+        channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+      } catch (IOException e) {
+        return CompletableFuture.failedFuture(e);
+      }
+      long rangeSize = S3OutputStream.partSizeFor(size, partSize);
+      var offsets = LongStream.iterate(0, offset -> offset < size, offset -> offset + rangeSize)
+        .boxed()
+        .toList();
+      return forEachAsync(offsets, maxPartsInFlight,
+          offset -> downloadRangeAsync(path, target, channel, offset, Math.min(rangeSize, size - offset)))
+        .whenComplete((v, e) -> {
+          IOUtils.closeQuietly(channel);
+          if (e != null) {
+            FileUtils.deleteQuietly(target.toFile());
+          }
+        })
+        .thenApply(v -> target);
+    });
+    return withErrorMessage(future, "Cannot download %s to %s".formatted(path, target));
+  }
+
+  /**
+   * Writes the byte range of the object at the same position of the local file. Fails if the
+   * object ends before the range does, a short range would leave a zero-filled hole in the file.
+   *
+   * @param path    the path to the file on S3-compatible storage
+   * @param target  the local file
+   * @param channel channel of the local file, open for writing
+   * @param offset  the position of the range
+   * @param length  the length of the range
+   */
+  protected CompletableFuture<Void> downloadRangeAsync(String path, Path target, FileChannel channel, long offset,
+      long length) {
+    return readRangeAsync(path, offset, length).thenAcceptAsync(is -> {
+      long written = 0;
+      try (is; var source = Channels.newChannel(is)) {
+        long n;
+        while (written < length && (n = channel.transferFrom(source, offset + written, length - written)) > 0) {
+          written += n;
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      if (written != length) {
+        throw new S3ClientException("Downloaded %d bytes instead of %d at offset %d of %s"
+          .formatted(written, length, offset, path));
+      }
+    }, executor);
+  }
+
+  @Override
+  public long getSize(String path) {
+    return await(getSizeAsync(path));
+  }
+
+  @Override
+  public RemoteStorageWriter getRemoteStorageWriter(String path, int size) {
+    return new RemoteStorageWriter(path, size, this);
+  }
+
+  @Override
+  public RemoteStorageWriter getStreamingRemoteStorageWriter(String path) {
+    return new RemoteStorageWriter(path, getOutputStream(path));
+  }
+
+  @Override
+  public S3OutputStream getOutputStream(String path) {
+    return getOutputStream(path, null);
+  }
+
+  @Override
+  public S3OutputStream getOutputStream(String path, PutObjectAdditionalOptions extraOptions) {
+    return new S3OutputStream(createUploadTarget(path, extraOptions), partSize, maxPartsInFlight, bufferPool,
+        memoryBudget);
+  }
+
+  @Override
+  public AppendLog getAppendLog(String path) {
+    return new AppendLog(this, path, appendLogCompactionThreshold);
+  }
+
+  @Override
+  public String getPresignedUrl(String path) {
+    return getPresignedUrl(path, Method.GET);
+  }
+
+  @Override
+  public String getPresignedUrl(String path, Method method) {
+    return getPresignedUrl(path, method, EXPIRATION_TIME_IN_MINUTES, TimeUnit.MINUTES);
+  }
+
+  @Override
+  public String initiateMultipartUpload(String path) {
+    return await(initiateMultipartUploadAsync(path));
+  }
+
+  @Override
+  public CompletableFuture<String> initiateMultipartUploadAsync(String path) {
+    var future = async(() -> createUploadTarget(path, null).createMultipartUpload());
+    return withErrorMessage(future, "Error initiating multipart upload for object: " + path);
+  }
+
+  @Override
+  public String uploadMultipartPart(String path, String uploadId, int partNumber, String filename) {
+    return await(uploadMultipartPartAsync(path, uploadId, partNumber, filename));
+  }
+
+  @Override
+  public CompletableFuture<String> uploadMultipartPartAsync(String path, String uploadId, int partNumber,
+      String filename) {
+    var future = async(() -> uploadFileSliceAsync(path, uploadId, partNumber, filename, 0,
+        Files.size(Path.of(filename))));
+    return withErrorMessage(future, "Cannot upload part # " + partNumber + " for upload ID: " + uploadId);
+  }
+
+  @Override
+  public String uploadMultipartPart(String path, String uploadId, int partNumber, String filename, long offset,
+      long length) {
+    return await(uploadMultipartPartAsync(path, uploadId, partNumber, filename, offset, length));
+  }
+
+  @Override
+  public CompletableFuture<String> uploadMultipartPartAsync(String path, String uploadId, int partNumber,
+      String filename, long offset, long length) {
+    checkRange(offset, length);
+    var future = async(() -> uploadFileSliceAsync(path, uploadId, partNumber, filename, offset, length));
+    return withErrorMessage(future, "Cannot upload part # " + partNumber + " for upload ID: " + uploadId);
+  }
+
+  private CompletableFuture<String> uploadFileSliceAsync(String path, String uploadId, int partNumber,
+      String filename, long offset, long length) throws IOException {
+    var file = Path.of(filename);
+    long size = Files.size(file);
+    if (offset + length > size) {
+      throw new IOException("Part at %d of %d bytes exceeds file %s of %d bytes"
+        .formatted(offset, length, filename, size));
+    }
+    return createUploadTarget(path, null).uploadPart(uploadId, partNumber, file, offset, length);
+  }
+
+  @Override
+  public void abortMultipartUpload(String path, String uploadId) {
+    await(abortMultipartUploadAsync(path, uploadId));
+  }
+
+  @Override
+  public CompletableFuture<Void> abortMultipartUploadAsync(String path, String uploadId) {
+    var future = async(() -> createUploadTarget(path, null).abortMultipartUpload(uploadId));
+    return withErrorMessage(future, "Error aborting multipart upload ID: " + uploadId);
+  }
+
+  @Override
+  public void completeMultipartUpload(String path, String uploadId, List<String> partETags) {
+    await(completeMultipartUploadAsync(path, uploadId, partETags));
+  }
+
+  @Override
+  public CompletableFuture<Void> completeMultipartUploadAsync(String path, String uploadId, List<String> partETags) {
+    var future = async(() -> createUploadTarget(path, null).completeMultipartUpload(uploadId, partETags));
+    return withErrorMessage(future, "Error completing multipart upload ID: " + uploadId);
+  }
+
+  /**
+   * Lets running uploads drain and shuts down the upload executor, then closes the transport. A
+   * view created by {@link #withSubPath(String, Runnable)} only releases itself.
+   */
+  @Override
+  public void close() {
+    if (release != null) {
+      release.run();
+      return;
+    }
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)) {
+        log.warn("Upload executor did not terminate in {}s, interrupting remaining uploads", SHUTDOWN_TIMEOUT_IN_SECONDS);
+        executor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+    } finally {
+      closeTransport();
+    }
+  }
+
+  private class ComposerStorage implements MultipartComposer.Storage {
+
+    @Override
+    public CompletableFuture<InputStream> read(String path, long offset, long length) {
+      return readRangeAsync(path, offset, length);
+    }
+
+    @Override
+    public MultipartUploadTarget uploadTarget(String path) {
+      return createUploadTarget(path, null);
+    }
+
+    @Override
+    public CompletableFuture<RemoveResult> remove(List<String> paths) {
+      return removeAllAsync(paths);
+    }
+  }
+
+  protected String addSubPathIfPresent(String path) {
+    return fixPathWithIncorrectSymbols(isEmpty(subPath) ? path : String.format("%s/%s", subPath, path));
+  }
+
+  protected String removeSubPathIfPresent(String path) {
+    return isEmpty(subPath) ? path : replaceOnce(path, subPath + "/", EMPTY);
+  }
+
+  protected String fixPathWithIncorrectSymbols(String path) {
+    return path.replace("//", "/");
+  }
+
+  /**
+   * An SDK call that returns a future but may also throw while the request is being prepared,
+   * as the MinIO async methods do.
+   */
+  @FunctionalInterface
+  protected interface AsyncCall<T> {
+    CompletableFuture<T> call() throws Exception;
+  }
+
+  /**
+   * Invokes the call, turning an exception thrown while preparing the request into a failed future.
+   */
+  @SuppressWarnings("java:S2221")
+  protected static <T> CompletableFuture<T> async(AsyncCall<T> call) {
+    try {
+      return call.call();
+    } catch (Exception e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  /**
+   * Invokes the call on the upload executor, for calls that block while reading the request body.
+   */
+  protected <T> CompletableFuture<T> asyncOnExecutor(AsyncCall<T> call) {
+    return CompletableFuture.supplyAsync(() -> async(call), executor)
+      .thenCompose(Function.identity());
+  }
+
+  /**
+   * Replaces the failure of the future with an {@link S3ClientException} carrying the message.
+   */
+  protected static <T> CompletableFuture<T> withErrorMessage(CompletableFuture<T> future, String message) {
+    return future.exceptionallyCompose(e -> CompletableFuture.failedFuture(new S3ClientException(message, unwrap(e))));
+  }
+
+  /**
+   * Runs the action for every item with at most {@code parallelism} actions running at once. Each
+   * of up to {@code parallelism} workers starts the action for the next item as soon as its
+   * previous one completes; the first failure stops all workers from taking further items.
+   */
+  protected static <T> CompletableFuture<Void> forEachAsync(List<T> items, int parallelism,
+      Function<T, CompletableFuture<Void>> action) {
+    var next = new AtomicInteger();
+    var failed = new AtomicBoolean();
+    return CompletableFuture.allOf(IntStream.range(0, Math.min(items.size(), parallelism))
+      .mapToObj(i -> {
+        var worker = new CompletableFuture<Void>();
+        runWorker(items, next, failed, action, worker);
+        return worker;
+      })
+      .toArray(CompletableFuture[]::new));
+  }
+
+  /**
+   * Takes items until none are left or a worker has failed. Actions that complete synchronously
+   * are followed in a loop rather than by nested callbacks, so long lists don't grow the stack.
+   */
+  private static <T> void runWorker(List<T> items, AtomicInteger next, AtomicBoolean failed,
+      Function<T, CompletableFuture<Void>> action, CompletableFuture<Void> worker) {
+    while (true) {
+      int i;
+      if (failed.get() || (i = next.getAndIncrement()) >= items.size()) {
+        worker.complete(null);
+        return;
+      }
+      var future = async(() -> action.apply(items.get(i)));
+      if (future.isDone() && !future.isCompletedExceptionally()) {
+        continue;
+      }
+      future.whenComplete((v, e) -> {
+        if (e != null) {
+          failed.set(true);
+          worker.completeExceptionally(e);
+        } else {
+          runWorker(items, next, failed, action, worker);
+        }
+      });
+      return;
+    }
+  }
+
+  /**
+   * Waits for the future, rethrowing its failure as {@link S3ClientException}.
+   */
+  protected static <T> T await(CompletableFuture<T> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new S3ClientException("Interrupted while waiting for S3 response", e);
+    } catch (ExecutionException e) {
+      var cause = unwrap(e);
+      if (cause instanceof S3ClientException s3ClientException) {
+        // re-create to get the stack trace of the waiting thread
+        throw new S3ClientException(s3ClientException.getMessage(), s3ClientException.getCause());
+      }
+      throw new S3ClientException(cause.getMessage(), cause);
+    }
+  }
+
+  protected static Throwable unwrap(Throwable e) {
+    while ((e instanceof CompletionException || e instanceof ExecutionException) && e.getCause() != null) {
+      e = e.getCause();
+    }
+    return e;
+  }
+}
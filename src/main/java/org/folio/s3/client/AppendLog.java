@@ -0,0 +1,393 @@
+package org.folio.s3.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.folio.s3.exception.S3ClientException;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Append-only file on S3-compatible storage, obtained from
+ * {@link FolioS3Client#getAppendLog(String)}. Replaces the deprecated
+ * {@link FolioS3Client#append(String, InputStream)}, which rewrites or copies the whole file on
+ * every call.
+ *
+ * <p>Every {@link #append(InputStream, long) append} is stored as a new segment object under
+ * {@code <path>.segments/}, and the ordered list of segments with their sizes is kept in the
+ * manifest object {@code <path>.manifest}, rewritten after each append. An append therefore costs
+ * the appended bytes plus a manifest that stays short: once
+ * {@link S3ClientProperties#getAppendLogCompactionThreshold()} segments have accumulated they are
+ * composed server-side into a single segment in the background, while further appends continue.
+ *
+ * <p>{@link #read()} returns the concatenation of the segments listed in the manifest at the
+ * time of the call, so it never sees a partial append. Segments replaced by a compaction are
+ * kept while a stream opened before that compaction is still open, and removed by a later
+ * compaction once all such streams are closed. {@link #close()} removes them regardless, so
+ * streams must be closed before the log.
+ *
+ * <p>An instance is thread-safe, but a log must only be appended to through one instance at a
+ * time; instances opened on the same path concurrently overwrite each other's manifest.
+ */
+@Log4j2
+public class AppendLog implements AutoCloseable {
+
+  private static final String MANIFEST_SUFFIX = ".manifest";
+  private static final String SEGMENTS_SUFFIX = ".segments/";
+
+  /**
+   * A segment object of the log.
+   */
+  private record Segment(String path, long size) {
+  }
+
+  /**
+   * A segment replaced by a compaction, still needed by streams opened before the manifest
+   * {@code generation}.
+   */
+  private record Retired(String path, long generation) {
+  }
+
+  private final AbstractS3Client client;
+  private final String path;
+  private final int compactionThreshold;
+  private final List<Segment> segments = new ArrayList<>();
+  private final List<Retired> retired = new ArrayList<>();
+  /**
+   * Number of open streams by the manifest generation they were opened at.
+   */
+  private final NavigableMap<Long, Integer> openReads = new TreeMap<>();
+  private long generation;
+  /**
+   * Number of changes to {@link #segments}, tells a compaction whether an append wrote another
+   * manifest while the compaction wrote its own.
+   */
+  private long modifications;
+  private long nextSequence;
+  private CompletableFuture<Void> compaction = CompletableFuture.completedFuture(null);
+  private boolean compacting;
+
+  AppendLog(AbstractS3Client client, String path, int compactionThreshold) {
+    this.client = client;
+    this.path = path;
+    this.compactionThreshold = compactionThreshold;
+    loadManifest();
+  }
+
+  /**
+   * Appends the content of the input stream as a new segment.
+   *
+   * @param is   the data to append, closed when the append completes
+   * @param size the number of bytes to append
+   * @return the path of the log
+   */
+  public synchronized String append(InputStream is, long size) {
+    var segment = new Segment(segmentPath(nextSequence++), size);
+    client.write(segment.path(), is, size);
+    segments.add(segment);
+    modifications++;
+    try {
+      writeManifest(segments);
+    } catch (RuntimeException e) {
+      segments.remove(segments.size() - 1);
+      modifications++;
+      throw e;
+    }
+    if (segments.size() >= compactionThreshold && !compacting) {
+      startCompaction();
+    }
+    return path;
+  }
+
+  /**
+   * Appends bytes as a new segment.
+   *
+   * @param data the data to append
+   * @return the path of the log
+   */
+  public String append(byte[] data) {
+    return append(new ByteArrayInputStream(data), data.length);
+  }
+
+  /**
+   * Opens the content of the log as the concatenation of its segments at the time of the call.
+   * Segments are opened one after another while the stream is read, and are kept by compactions
+   * until the stream is closed.
+   *
+   * @return a new input stream with the log content, to be closed after reading
+   */
+  public InputStream read() {
+    List<Segment> snapshot;
+    long openedAt;
+    synchronized (this) {
+      snapshot = List.copyOf(segments);
+      openedAt = generation;
+      openReads.merge(openedAt, 1, Integer::sum);
+    }
+    var iterator = snapshot.iterator();
+    var segmentStreams = new Enumeration<InputStream>() {
+      @Override
+      public boolean hasMoreElements() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public InputStream nextElement() {
+        return client.read(iterator.next().path());
+      }
+    };
+    var closed = new AtomicBoolean();
+    try {
+      return new SequenceInputStream(segmentStreams) {
+        @Override
+        public void close() throws IOException {
+          try {
+            super.close();
+          } finally {
+            if (closed.compareAndSet(false, true)) {
+              releaseRead(openedAt);
+            }
+          }
+        }
+      };
+    } catch (RuntimeException e) {
+      releaseRead(openedAt);
+      throw e;
+    }
+  }
+
+  private synchronized void releaseRead(long openedAt) {
+    openReads.computeIfPresent(openedAt, (g, count) -> count > 1 ? count - 1 : null);
+  }
+
+  /**
+   * @return the number of bytes appended to the log
+   */
+  public synchronized long size() {
+    return segments.stream().mapToLong(Segment::size).sum();
+  }
+
+  /**
+   * Composes all current segments into one and waits until that is done, including a compaction
+   * that is already running in the background.
+   */
+  public void compact() {
+    while (true) {
+      CompletableFuture<Void> running;
+      boolean own;
+      synchronized (this) {
+        own = !compacting;
+        if (own && segments.size() < 2) {
+          return;
+        }
+        running = own ? startCompaction() : compaction;
+      }
+      if (own) {
+        AbstractS3Client.await(running);
+        return;
+      }
+      awaitQuietly(running);
+    }
+  }
+
+  /**
+   * Removes the log: its manifest and all of its segments.
+   */
+  public void delete() {
+    awaitCompaction();
+    synchronized (this) {
+      client.remove(path + MANIFEST_SUFFIX);
+      client.removeRecursive(path + SEGMENTS_SUFFIX);
+      segments.clear();
+      modifications++;
+      retired.clear();
+    }
+  }
+
+  /**
+   * Waits for a running compaction and removes all segments replaced by compactions, including
+   * those still needed by open streams.
+   */
+  @Override
+  public void close() {
+    awaitCompaction();
+    List<String> removable;
+    synchronized (this) {
+      removable = takeRetired(true);
+    }
+    AbstractS3Client.await(removeRetiredAsync(removable));
+  }
+
+  private void awaitCompaction() {
+    CompletableFuture<Void> running;
+    synchronized (this) {
+      running = compaction;
+    }
+    awaitQuietly(running);
+  }
+
+  /**
+   * Waits for a background compaction, whose failure has already been logged.
+   */
+  private static void awaitQuietly(CompletableFuture<Void> future) {
+    AbstractS3Client.await(future.exceptionally(e -> null));
+  }
+
+  /**
+   * Composes the segments present now into one segment; appends made meanwhile go after it.
+   * Must be called while holding the lock, which the compaction only takes again to read and
+   * replace the segments, never while waiting for storage.
+   */
+  private CompletableFuture<Void> startCompaction() {
+    compacting = true;
+    removeRetiredAsync(takeRetired(false));
+    var compacted = List.copyOf(segments);
+    var target = new Segment(segmentPath(nextSequence++), compacted.stream().mapToLong(Segment::size).sum());
+    log.debug("Compacting {} segments of {} into {}", compacted.size(), path, target.path());
+    compaction = client.composeAsync(target.path(), compacted.stream().map(Segment::path).toList())
+      .thenCompose(v -> replaceCompacted(compacted, target, false))
+      .whenComplete((v, e) -> {
+        synchronized (this) {
+          compacting = false;
+        }
+        if (e != null) {
+          log.warn("Cannot compact segments of {}: {}", path, e.getMessage());
+        }
+      });
+    return compaction;
+  }
+
+  /**
+   * Writes a manifest referencing the target instead of the compacted segments and then replaces
+   * them in {@link #segments}. An append made while the manifest is written writes its own
+   * manifest without the target, so the manifest is written again until no append came in
+   * between.
+   *
+   * @param written whether a manifest referencing the target has already been written
+   */
+  private CompletableFuture<Void> replaceCompacted(List<Segment> compacted, Segment target, boolean written) {
+    List<Segment> updated;
+    long expected;
+    synchronized (this) {
+      updated = new ArrayList<>(segments.size() - compacted.size() + 1);
+      updated.add(target);
+      updated.addAll(segments.subList(compacted.size(), segments.size()));
+      expected = modifications;
+    }
+    return writeManifestAsync(updated)
+      .exceptionallyCompose(e -> {
+        if (!written) {
+          removeUnreferencedAsync(target.path());
+        }
+        return CompletableFuture.failedFuture(e);
+      })
+      .thenCompose(v -> {
+        synchronized (this) {
+          if (modifications == expected) {
+            segments.clear();
+            segments.addAll(updated);
+            modifications++;
+            generation++;
+            compacted.forEach(segment -> retired.add(new Retired(segment.path(), generation)));
+            return CompletableFuture.<Void>completedFuture(null);
+          }
+        }
+        return replaceCompacted(compacted, target, true);
+      });
+  }
+
+  /**
+   * Takes the retired segments no open stream needs anymore, or all of them, for
+   * {@link #removeRetiredAsync}. Must be called while holding the lock.
+   */
+  private List<String> takeRetired(boolean all) {
+    long oldestRead = openReads.isEmpty() ? Long.MAX_VALUE : openReads.firstKey();
+    var removable = retired.stream()
+      .filter(segment -> all || oldestRead >= segment.generation())
+      .toList();
+    retired.removeAll(removable);
+    return removable.stream().map(Retired::path).toList();
+  }
+
+  /**
+   * Removes retired segments; failures are logged, the segments are not referenced anymore.
+   */
+  private CompletableFuture<Void> removeRetiredAsync(List<String> removable) {
+    if (removable.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return client.removeAllAsync(removable)
+      .handle((result, e) -> {
+        if (e != null) {
+          log.warn("Cannot remove compacted segments of {}: {}", path, e.getMessage());
+        } else if (result.hasFailures()) {
+          log.warn("Cannot remove compacted segments of {}: {}", path, result.failed());
+        }
+        return null;
+      });
+  }
+
+  /**
+   * Removes a compacted segment the manifest could not be updated to reference.
+   */
+  private void removeUnreferencedAsync(String segmentPath) {
+    client.removeAsync(segmentPath)
+      .exceptionally(e -> {
+        log.warn("Cannot remove unreferenced segment {}: {}", segmentPath, e.getMessage());
+        return null;
+      });
+  }
+
+  private String segmentPath(long sequence) {
+    return "%s%s%019d".formatted(path, SEGMENTS_SUFFIX, sequence);
+  }
+
+  private void loadManifest() {
+    var manifest = path + MANIFEST_SUFFIX;
+    if (!client.list(manifest).contains(manifest)) {
+      return;
+    }
+    try (var is = client.read(manifest)) {
+      for (var line : new String(is.readAllBytes(), StandardCharsets.UTF_8).split("\n")) {
+        if (!line.isEmpty()) {
+          int separator = line.indexOf(' ');
+          segments.add(new Segment(line.substring(separator + 1), Long.parseLong(line.substring(0, separator))));
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      throw new S3ClientException("Cannot read append log manifest: " + manifest, e);
+    }
+    nextSequence = segments.stream()
+      .mapToLong(segment -> Long.parseLong(segment.path().substring(segment.path().lastIndexOf('/') + 1)) + 1)
+      .max()
+      .orElse(0);
+  }
+
+  private void writeManifest(List<Segment> segments) {
+    var bytes = manifest(segments);
+    client.write(path + MANIFEST_SUFFIX, new ByteArrayInputStream(bytes), bytes.length);
+  }
+
+  private CompletableFuture<String> writeManifestAsync(List<Segment> segments) {
+    var bytes = manifest(segments);
+    return client.writeAsync(path + MANIFEST_SUFFIX, new ByteArrayInputStream(bytes), bytes.length);
+  }
+
+  private static byte[] manifest(List<Segment> segments) {
+    return segments.stream()
+      .map(segment -> segment.size() + " " + segment.path() + "\n")
+      .collect(Collectors.joining())
+      .getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -1,52 +1,130 @@
 package org.folio.s3.client;
 
-import static io.minio.ObjectWriteArgs.MIN_MULTIPART_SIZE;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
 import java.io.InputStream;
 import java.io.SequenceInputStream;
 import java.net.URI;
-import java.util.concurrent.Executors;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import org.apache.commons.lang3.StringUtils;
 import org.folio.s3.exception.S3ClientException;
 
+import io.minio.http.Method;
 import lombok.extern.log4j.Log4j2;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.awscore.presigner.PresignedRequest;
 import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.FileRequestBodyConfiguration;
+import software.amazon.awssdk.core.FileTransformerConfiguration;
+import software.amazon.awssdk.core.FileTransformerConfiguration.FailureBehavior;
+import software.amazon.awssdk.core.FileTransformerConfiguration.FileWriteOption;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.http.SdkHttpMethod;
+import software.amazon.awssdk.http.SdkHttpRequest;
+import software.amazon.awssdk.http.auth.aws.signer.AwsV4FamilyHttpSigner;
+import software.amazon.awssdk.http.auth.aws.signer.AwsV4HttpSigner;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.identity.spi.AwsCredentialsIdentity;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.crt.S3CrtHttpConfiguration;
 import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.BucketLocationConstraint;
 import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
 import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
 import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateBucketConfiguration;
+import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
 import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadBucketRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.model.UploadPartCopyRequest;
 import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+import software.amazon.awssdk.services.s3.multipart.MultipartConfiguration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.transfer.s3.S3TransferManager;
-import software.amazon.awssdk.transfer.s3.model.UploadRequest;
+import software.amazon.awssdk.transfer.s3.model.DownloadFileRequest;
+import software.amazon.awssdk.transfer.s3.model.UploadFileRequest;
 
+/**
+ * {@link FolioS3Client} implemented on the AWS SDK {@link S3AsyncClient} alone: every operation
+ * shares its connection pool and credentials provider. Local files are uploaded, and with the
+ * CRT-based client also downloaded, by one {@link S3TransferManager} per client over the same SDK
+ * client. Presigned URLs are signed locally by an {@link S3Presigner} with the same credentials.
+ */
 @Log4j2
-public class AwsS3Client extends MinioS3Client {
+public class AwsS3Client extends AbstractS3Client {
 
   private final S3AsyncClient client;
-  private final String bucket;
+  private final S3TransferManager transferManager;
+  private final S3Presigner presigner;
+  private final String region;
+  private final boolean crt;
   private static final int PART_NUMBER_ONE = 1;
   private static final int PART_NUMBER_TWO = 2;
 
   AwsS3Client(S3ClientProperties s3ClientProperties, S3AsyncClient client) {
     super(s3ClientProperties);
     this.client = client;
-    bucket = s3ClientProperties.getBucket();
+    transferManager = S3TransferManager.builder()
+      .s3Client(client)
+      .executor(executor)
+      .build();
+    presigner = createPresigner(client, s3ClientProperties.isForcePathStyle());
+    region = s3ClientProperties.getRegion();
+    crt = s3ClientProperties.isCrtEnabled();
+    warmUpInBackground();
   }
 
   public AwsS3Client(S3ClientProperties s3ClientProperties) {
     this(s3ClientProperties, createS3Client(s3ClientProperties));
   }
 
+  private AwsS3Client(AwsS3Client shared, String subPath, Runnable release) {
+    super(shared, subPath, release);
+    client = shared.client;
+    transferManager = shared.transferManager;
+    presigner = shared.presigner;
+    region = shared.region;
+    crt = shared.crt;
+  }
+
+  @Override
+  protected AbstractS3Client withSubPath(String subPath, Runnable release) {
+    return new AwsS3Client(this, subPath, release);
+  }
+
   static S3AsyncClient createS3Client(S3ClientProperties s3ClientProperties) {
     final String accessKey = s3ClientProperties.getAccessKey();
     final String endpoint = s3ClientProperties.getEndpoint();
@@ -61,67 +139,402 @@ public class AwsS3Client extends MinioS3Client {
 
     credentialsProvider = getCredentialsProvider(accessKey, secretKey);
 
+    if (s3ClientProperties.isCrtEnabled()) {
+      return createCrtClient(s3ClientProperties, credentialsProvider);
+    }
     return S3AsyncClient.builder()
             .endpointOverride(URI.create(endpoint))
             .forcePathStyle(s3ClientProperties.isForcePathStyle())
             .region(Region.of(region))
             .credentialsProvider(credentialsProvider)
+            .httpClientBuilder(createHttpClientBuilder(s3ClientProperties))
             .multipartEnabled(true)
+            .multipartConfiguration(createMultipartConfiguration(s3ClientProperties))
             .build();
   }
 
+  /**
+   * Splits uploads of the transfer manager into parts of {@link S3ClientProperties#getPartSize()},
+   * like the uploads of streams.
+   */
+  static MultipartConfiguration createMultipartConfiguration(S3ClientProperties s3ClientProperties) {
+    long partSize = Math.max(MultipartComposer.MIN_PART_SIZE,
+        Objects.requireNonNullElse(s3ClientProperties.getPartSize(), 0));
+    return MultipartConfiguration.builder()
+      .thresholdInBytes(partSize)
+      .minimumPartSizeInBytes(partSize)
+      .build();
+  }
+
+  /**
+   * Creates the CRT-based client, which splits the object uploads and downloads of the transfer
+   * manager into parallel part requests itself. It brings its own HTTP client, only the max concurrency and connect timeout
+   * of the transport properties apply.
+   */
+  private static S3AsyncClient createCrtClient(S3ClientProperties s3ClientProperties,
+      AwsCredentialsProvider credentialsProvider) {
+    log.info("Creating AWS CRT-based client, target throughput {} Gbps, minimum part size {}, max concurrency {}",
+        s3ClientProperties.getTargetThroughputInGbps(), s3ClientProperties.getMinimumPartSizeInBytes(),
+        s3ClientProperties.getMaxConnections());
+    try {
+      var builder = S3AsyncClient.crtBuilder()
+        .endpointOverride(URI.create(s3ClientProperties.getEndpoint()))
+        .forcePathStyle(s3ClientProperties.isForcePathStyle())
+        .region(Region.of(s3ClientProperties.getRegion()))
+        .credentialsProvider(credentialsProvider)
+        .targetThroughputInGbps(s3ClientProperties.getTargetThroughputInGbps())
+        .minimumPartSizeInBytes(s3ClientProperties.getMinimumPartSizeInBytes())
+        .maxConcurrency(s3ClientProperties.getMaxConnections());
+      Optional.ofNullable(s3ClientProperties.getConnectTimeoutMillis())
+        .ifPresent(millis -> builder.httpConfiguration(S3CrtHttpConfiguration.builder()
+          .connectionTimeout(Duration.ofMillis(millis))
+          .build()));
+      return builder.build();
+    } catch (NoClassDefFoundError e) {
+      throw new S3ClientException("crtEnabled requires software.amazon.awssdk.crt:aws-crt on the classpath", e);
+    }
+  }
+
+  /**
+   * Creates the Netty HTTP client builder tuned by the transport properties, unset properties
+   * keep the SDK defaults. The SDK builds the HTTP client and closes it with the S3 client.
+   */
+  static NettyNioAsyncHttpClient.Builder createHttpClientBuilder(S3ClientProperties s3ClientProperties) {
+    var builder = NettyNioAsyncHttpClient.builder();
+    Optional.ofNullable(s3ClientProperties.getMaxConnections())
+      .ifPresent(builder::maxConcurrency);
+    Optional.ofNullable(s3ClientProperties.getIdleKeepAliveSeconds())
+      .ifPresent(seconds -> builder.connectionMaxIdleTime(Duration.ofSeconds(seconds)));
+    Optional.ofNullable(s3ClientProperties.getConnectTimeoutMillis())
+      .ifPresent(millis -> builder.connectionTimeout(Duration.ofMillis(millis)));
+    Optional.ofNullable(s3ClientProperties.getReadTimeoutMillis())
+      .ifPresent(millis -> builder.readTimeout(Duration.ofMillis(millis)));
+    Optional.ofNullable(s3ClientProperties.getWriteTimeoutMillis())
+      .ifPresent(millis -> builder.writeTimeout(Duration.ofMillis(millis)));
+    Optional.ofNullable(s3ClientProperties.getConnectionAcquisitionTimeoutMillis())
+      .ifPresent(millis -> builder.connectionAcquisitionTimeout(Duration.ofMillis(millis)));
+    Optional.ofNullable(s3ClientProperties.getTcpKeepAlive())
+      .ifPresent(builder::tcpKeepAlive);
+    return builder;
+  }
+
+  /**
+   * Creates a presigner for the endpoint and region of the client. It signs URLs locally, opens
+   * no connections and uses the credentials provider of the client.
+   */
+  static S3Presigner createPresigner(S3AsyncClient client, boolean forcePathStyle) {
+    var configuration = client.serviceClientConfiguration();
+    var builder = S3Presigner.builder()
+      .region(configuration.region())
+      .credentialsProvider(configuration.credentialsProvider())
+      .serviceConfiguration(S3Configuration.builder()
+        .pathStyleAccessEnabled(forcePathStyle)
+        .build());
+    configuration.endpointOverride().ifPresent(builder::endpointOverride);
+    return builder.build();
+  }
+
+  /**
+   * Part buffers of the AWS SDK client are direct, the SDK sends them without copying.
+   */
   @Override
-  public String write(String path, InputStream is) {
-    log.debug("Writing with using AWS SDK client");
-    try (is) {
-      return removeSubPathIfPresent(client.putObject(PutObjectRequest.builder()
-                      .bucket(bucket)
-                      .key(addSubPathIfPresent(path))
-                      .build(), AsyncRequestBody.fromBytes(is.readAllBytes()))
-              .thenApply(response -> path)
-              .get());
-    } catch (Exception e) {
-      throw new S3ClientException("Cannot write file: " + path, e);
+  protected boolean useDirectBuffers() {
+    return true;
+  }
+
+  @Override
+  protected MultipartUploadTarget createUploadTarget(String path, PutObjectAdditionalOptions extraOptions) {
+    return new AwsMultipartUploadTarget(addSubPathIfPresent(path), extraOptions);
+  }
+
+  /**
+   * Lets the transfer manager upload the file, split into parts that the SDK reads straight from
+   * the file.
+   */
+  @Override
+  public CompletableFuture<String> uploadAsync(String path, String filename) {
+    var future = async(() -> transferManager.uploadFile(UploadFileRequest.builder()
+          .putObjectRequest(PutObjectRequest.builder()
+            .bucket(bucket)
+            .key(addSubPathIfPresent(filename))
+            .build())
+          .source(Path.of(path))
+          .build())
+        .completionFuture())
+      .thenApply(upload -> addSubPathIfPresent(filename));
+    return withErrorMessage(future, "Cannot upload file: " + path);
+  }
+
+  /**
+   * With the CRT-based client the transfer manager downloads the whole object, which the CRT
+   * client splits into parallel ranges written to the file. The size is read first so that a
+   * missing object leaves an existing local file alone, as in the default implementation.
+   */
+  @Override
+  public CompletableFuture<Path> downloadAsync(String path, Path target) {
+    if (!crt) {
+      return super.downloadAsync(path, target);
     }
+    var future = getSizeAsync(path)
+      .thenCompose(size -> transferManager.downloadFile(DownloadFileRequest.builder()
+          .getObjectRequest(GetObjectRequest.builder()
+            .bucket(bucket)
+            .key(addSubPathIfPresent(path))
+            .build())
+          .destination(target)
+          .build())
+        .completionFuture())
+      .thenApply(download -> target);
+    return withErrorMessage(future, "Cannot download %s to %s".formatted(path, target));
   }
 
   @Override
-  public String write(String path, InputStream is, long size) {
-    return write(path, is, size, null);
+  public void createBucketIfNotExists() {
+    if (StringUtils.isBlank(bucket)) {
+      log.debug("Bucket name is null, empty or blank.");
+      return;
+    }
+    var future = bucketExistsAsync().thenCompose(exists -> {
+      if (Boolean.TRUE.equals(exists)) {
+        log.debug("Bucket already exists.");
+        return CompletableFuture.<Void>completedFuture(null);
+      }
+      return createBucket();
+    });
+    try {
+      await(future);
+    } catch (S3ClientException e) {
+      log.error("Error creating bucket {}: {}", bucket, e.getMessage(), e);
+      throw new S3ClientException("Error creating bucket: " + bucket, e.getCause());
+    }
   }
 
   @Override
-  public String write(String path, InputStream is, long size, PutObjectAdditionalOptions extraOptions) {
-    log.debug("Writing with using AWS SDK client");
-    try (is; var manager = S3TransferManager.builder().s3Client(client).build()) {
-      PutObjectRequest.Builder putObjectRequestBuilder = PutObjectRequest.builder()
-              .bucket(bucket)
-              .key(addSubPathIfPresent(path));
+  protected CompletableFuture<Boolean> bucketExistsAsync() {
+    return async(() -> client.headBucket(HeadBucketRequest.builder()
+        .bucket(bucket)
+        .build()))
+      .thenApply(response -> true)
+      .exceptionallyCompose(e -> unwrap(e) instanceof NoSuchBucketException
+        ? CompletableFuture.completedFuture(false)
+        : CompletableFuture.failedFuture(e));
+  }
 
-      if (extraOptions != null) {
-        if (extraOptions.getContentDisposition() != null) {
-          putObjectRequestBuilder.contentDisposition(extraOptions.getContentDisposition());
-        }
-        if (extraOptions.getContentType() != null) {
-          putObjectRequestBuilder.contentType(extraOptions.getContentType());
+  private CompletableFuture<Void> createBucket() {
+    var request = CreateBucketRequest.builder()
+      .bucket(bucket);
+    // us-east-1 is the default location and must not be sent as a constraint
+    if (StringUtils.isNotBlank(region) && !Region.US_EAST_1.id().equals(region)) {
+      request.createBucketConfiguration(CreateBucketConfiguration.builder()
+        .locationConstraint(BucketLocationConstraint.fromValue(region))
+        .build());
+    }
+    return client.createBucket(request.build())
+      .thenAccept(response -> log.debug("Created {} bucket.", bucket));
+  }
+
+  @Override
+  public CompletableFuture<String> removeAsync(String path) {
+    var future = async(() -> client.deleteObject(DeleteObjectRequest.builder()
+        .bucket(bucket)
+        .key(addSubPathIfPresent(path))
+        .build()))
+      .thenApply(response -> path);
+    return withErrorMessage(future, "Error deleting file: " + path);
+  }
+
+  @Override
+  protected CompletableFuture<RemoveResult> removeBatchAsync(List<String> paths) {
+    var objects = paths.stream()
+      .map(path -> ObjectIdentifier.builder()
+        .key(addSubPathIfPresent(path))
+        .build())
+      .toList();
+    // quiet mode: the response lists only the keys that could not be deleted
+    return async(() -> client.deleteObjects(DeleteObjectsRequest.builder()
+        .bucket(bucket)
+        .delete(Delete.builder()
+          .objects(objects)
+          .quiet(true)
+          .build())
+        .build()))
+      .thenApply(response -> {
+        Map<String, String> failed = new HashMap<>();
+        response.errors()
+          .forEach(error -> failed.put(removeSubPathIfPresent(error.key()), error.code() + ": " + error.message()));
+        return new RemoveResult(paths.stream()
+          .filter(path -> !failed.containsKey(path))
+          .toList(), failed);
+      })
+      .exceptionally(e -> {
+        var message = String.valueOf(unwrap(e).getMessage());
+        log.warn("Error deleting {} files: {}", paths.size(), message);
+        return new RemoveResult(List.of(), paths.stream()
+          .collect(Collectors.toMap(Function.identity(), path -> message, (a, b) -> a)));
+      });
+  }
+
+  @Override
+  protected CompletableFuture<ListPage> listPageAsync(String prefix, boolean recursive, Integer maxKeys,
+      String startAfter, String continuationToken) {
+    return client.listObjectsV2(ListObjectsV2Request.builder()
+        .bucket(bucket)
+        .prefix(prefix)
+        .delimiter(recursive ? null : DELIMITER)
+        .maxKeys(maxKeys)
+        .startAfter(startAfter)
+        .continuationToken(continuationToken)
+        .build())
+      .thenApply(AwsS3Client::toListPage);
+  }
+
+  private static ListPage toListPage(ListObjectsV2Response response) {
+    var objects = response.contents()
+      .stream()
+      .map(object -> new ObjectInfo(object.key(), object.size(), StringUtils.strip(object.eTag(), "\""),
+          object.lastModified(), false));
+    var directories = response.commonPrefixes()
+      .stream()
+      .map(commonPrefix -> new ObjectInfo(commonPrefix.prefix(), 0, null, null, true));
+    return new ListPage(Stream.concat(objects, directories).toList(), Boolean.TRUE.equals(response.isTruncated()),
+        response.nextContinuationToken());
+  }
+
+  @Override
+  public CompletableFuture<InputStream> readAsync(String path) {
+    var future = async(() -> client.getObject(GetObjectRequest.builder()
+          .bucket(bucket)
+          .key(addSubPathIfPresent(path))
+          .build(), AsyncResponseTransformer.toBlockingInputStream()))
+      .thenApply(InputStream.class::cast);
+    return withErrorMessage(future, "Error creating input stream for path: " + path);
+  }
+
+  /**
+   * Sends the range as an HTTP Range header, the body is streamed to the caller as it arrives.
+   */
+  @Override
+  protected CompletableFuture<InputStream> readRangeAsync(String path, long offset, Long length) {
+    var range = length == null ? "bytes=%d-".formatted(offset) : "bytes=%d-%d".formatted(offset, offset + length - 1);
+    var future = async(() -> client.getObject(GetObjectRequest.builder()
+          .bucket(bucket)
+          .key(addSubPathIfPresent(path))
+          .range(range)
+          .build(), AsyncResponseTransformer.toBlockingInputStream()))
+      .thenApply(InputStream.class::cast);
+    return withErrorMessage(future, "Error creating input stream for path: %s, range: %s".formatted(path, range));
+  }
+
+  /**
+   * Lets the SDK write the response body at the range position of the local file as it arrives,
+   * without occupying an executor thread. Fails like the default implementation if the response
+   * is shorter than the range.
+   */
+  @Override
+  protected CompletableFuture<Void> downloadRangeAsync(String path, Path target, FileChannel channel, long offset,
+      long length) {
+    return async(() -> client.getObject(GetObjectRequest.builder()
+          .bucket(bucket)
+          .key(addSubPathIfPresent(path))
+          .range("bytes=%d-%d".formatted(offset, offset + length - 1))
+          .build(), AsyncResponseTransformer.toFile(target, FileTransformerConfiguration.builder()
+            .fileWriteOption(FileWriteOption.WRITE_TO_POSITION)
+            .position(offset)
+            .failureBehavior(FailureBehavior.LEAVE)
+            .build())))
+      .thenAccept(response -> {
+        if (response.contentLength() != length) {
+          throw new S3ClientException("Downloaded %d bytes instead of %d at offset %d of %s"
+            .formatted(response.contentLength(), length, offset, path));
         }
-      }
+      });
+  }
 
-      UploadRequest uploadRequest = UploadRequest.builder()
-              .putObjectRequest(putObjectRequestBuilder.build())
-              .requestBody(AsyncRequestBody.fromInputStream(is, size, Executors.newCachedThreadPool()))
-              .build();
+  @Override
+  public CompletableFuture<Long> getSizeAsync(String path) {
+    var future = async(() -> client.headObject(HeadObjectRequest.builder()
+        .bucket(bucket)
+        .key(addSubPathIfPresent(path))
+        .build()))
+      .thenApply(HeadObjectResponse::contentLength);
+    return withErrorMessage(future, "Error getting size: " + path);
+  }
 
-      return removeSubPathIfPresent(manager.upload(uploadRequest).completionFuture()
-              .thenApply(response -> path)
-              .get());
+  /**
+   * Signs GET, HEAD, PUT and DELETE object requests with the {@link S3Presigner}, requests of
+   * other methods such as POST with the SigV4 signer directly.
+   */
+  @Override
+  public String getPresignedUrl(String path, Method method, int expiryTime, TimeUnit expiryUnit) {
+    var duration = Duration.of(expiryTime, expiryUnit.toChronoUnit());
+    var key = addSubPathIfPresent(path);
+    try {
+      PresignedRequest request = switch (method) {
+        case GET -> presigner.presignGetObject(r -> r.signatureDuration(duration)
+          .getObjectRequest(o -> o.bucket(bucket).key(key)));
+        case HEAD -> presigner.presignHeadObject(r -> r.signatureDuration(duration)
+          .headObjectRequest(o -> o.bucket(bucket).key(key)));
+        case PUT -> presigner.presignPutObject(r -> r.signatureDuration(duration)
+          .putObjectRequest(o -> o.bucket(bucket).key(key)));
+        case DELETE -> presigner.presignDeleteObject(r -> r.signatureDuration(duration)
+          .deleteObjectRequest(o -> o.bucket(bucket).key(key)));
+        default -> null;
+      };
+      return request != null ? request.url().toString() : presignUrl(key, method, duration);
     } catch (Exception e) {
-      throw new S3ClientException("Cannot write file: " + path, e);
+      throw new S3ClientException(
+        "Error getting presigned url for object: " + path + ", method: " + method,
+        e
+      );
     }
   }
 
   /**
-   * {@code @deprecated, won't be used in future}
+   * Signs a request of the method for the object URL of the client, with the signature in the
+   * query string like the {@link S3Presigner} does.
+   */
+  private String presignUrl(String key, Method method, Duration duration) {
+    var configuration = client.serviceClientConfiguration();
+    AwsCredentialsIdentity credentials = configuration.credentialsProvider().resolveIdentity().join();
+    var url = client.utilities().getUrl(r -> r.bucket(bucket).key(key));
+    var signed = AwsV4HttpSigner.create().sign(r -> r
+      .identity(credentials)
+      .request(SdkHttpRequest.builder()
+        .method(SdkHttpMethod.fromValue(method.name()))
+        .uri(URI.create(url.toString()))
+        .build())
+      .putProperty(AwsV4HttpSigner.SERVICE_SIGNING_NAME, "s3")
+      .putProperty(AwsV4HttpSigner.REGION_NAME, configuration.region().id())
+      .putProperty(AwsV4HttpSigner.AUTH_LOCATION, AwsV4FamilyHttpSigner.AuthLocation.QUERY_STRING)
+      .putProperty(AwsV4HttpSigner.EXPIRATION_DURATION, duration)
+      .putProperty(AwsV4HttpSigner.PAYLOAD_SIGNING_ENABLED, false));
+    return signed.request().getUri().toString();
+  }
+
+  @Override
+  public String getPresignedMultipartUploadUrl(
+    String path,
+    String uploadId,
+    int partNumber
+  ) {
+    try {
+      return presigner.presignUploadPart(r -> r.signatureDuration(Duration.ofMinutes(EXPIRATION_TIME_IN_MINUTES))
+          .uploadPartRequest(o -> o.bucket(bucket)
+            .key(addSubPathIfPresent(path))
+            .uploadId(uploadId)
+            .partNumber(partNumber)))
+        .url()
+        .toString();
+    } catch (Exception e) {
+      throw new S3ClientException(
+        "Error getting presigned url for part #" + partNumber + "of upload ID: " + uploadId,
+        e
+      );
+    }
+  }
+
+  /**
+   * {@code @deprecated, won't be used in future}, use {@link #getAppendLog(String)}
    */
   @Deprecated(forRemoval = true)
   @Override
@@ -136,7 +549,7 @@ public class AwsS3Client extends MinioS3Client {
         var size = getSize(path);
         log.debug("Appending to {} with size {}", path, size);
 
-        if (size > MIN_MULTIPART_SIZE) {
+        if (size > MultipartComposer.MIN_PART_SIZE) {
 
           var createMultipartUploadRequest = CreateMultipartUploadRequest.builder()
             .bucket(bucket)
@@ -165,7 +578,7 @@ public class AwsS3Client extends MinioS3Client {
           var originalEtag = client.uploadPartCopy(uploadPartRequest1).join()
             .copyPartResult()
             .eTag();
-          var appendedEtag = client.uploadPart(uploadPartRequest2, AsyncRequestBody.fromInputStream(is, (long) is.available(),Executors.newCachedThreadPool())).join()
+          var appendedEtag = client.uploadPart(uploadPartRequest2, AsyncRequestBody.fromInputStream(is, (long) is.available(), executor)).join()
             .eTag();
 
           var original = CompletedPart.builder()
@@ -213,6 +626,137 @@ public class AwsS3Client extends MinioS3Client {
     }
   }
 
+  /**
+   * Shuts down the transfer manager, the AWS SDK client and the presigner.
+   */
+  @Override
+  protected void closeTransport() {
+    log.debug("Closing AWS SDK client");
+    transferManager.close();
+    client.close();
+    presigner.close();
+  }
+
+  private class AwsMultipartUploadTarget implements MultipartUploadTarget {
+
+    private final String key;
+    private final PutObjectAdditionalOptions extraOptions;
+
+    AwsMultipartUploadTarget(String key, PutObjectAdditionalOptions extraOptions) {
+      this.key = key;
+      this.extraOptions = extraOptions == null ? PutObjectAdditionalOptions.builder().build() : extraOptions;
+    }
+
+    @Override
+    public CompletableFuture<Void> putObject(ByteBuffer data) {
+      return client.putObject(PutObjectRequest.builder()
+          .bucket(bucket)
+          .key(key)
+          .contentType(extraOptions.getContentType())
+          .contentDisposition(extraOptions.getContentDisposition())
+          .build(), AsyncRequestBody.fromByteBufferUnsafe(data))
+        .thenApply(response -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> putObject(Path file) {
+      return client.putObject(PutObjectRequest.builder()
+          .bucket(bucket)
+          .key(key)
+          .contentType(extraOptions.getContentType())
+          .contentDisposition(extraOptions.getContentDisposition())
+          .build(), AsyncRequestBody.fromFile(file))
+        .thenApply(response -> null);
+    }
+
+    @Override
+    public CompletableFuture<String> createMultipartUpload() {
+      return client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+          .bucket(bucket)
+          .key(key)
+          .contentType(extraOptions.getContentType())
+          .contentDisposition(extraOptions.getContentDisposition())
+          .build())
+        .thenApply(CreateMultipartUploadResponse::uploadId);
+    }
+
+    @Override
+    public CompletableFuture<String> uploadPart(String uploadId, int partNumber, ByteBuffer data) {
+      return client.uploadPart(UploadPartRequest.builder()
+          .bucket(bucket)
+          .key(key)
+          .uploadId(uploadId)
+          .partNumber(partNumber)
+          .contentLength((long) data.remaining())
+          .build(), AsyncRequestBody.fromByteBufferUnsafe(data))
+        .thenApply(UploadPartResponse::eTag);
+    }
+
+    /**
+     * The SDK reads the slice from the file as the request body is sent, no part buffer is used.
+     */
+    @Override
+    public CompletableFuture<String> uploadPart(String uploadId, int partNumber, Path file, long offset,
+        long length) {
+      return client.uploadPart(UploadPartRequest.builder()
+          .bucket(bucket)
+          .key(key)
+          .uploadId(uploadId)
+          .partNumber(partNumber)
+          .contentLength(length)
+          .build(), AsyncRequestBody.fromFile(FileRequestBodyConfiguration.builder()
+            .path(file)
+            .position(offset)
+            .numBytesToRead(length)
+            .build()))
+        .thenApply(UploadPartResponse::eTag);
+    }
+
+    @Override
+    public CompletableFuture<String> uploadPartCopy(String uploadId, int partNumber, String sourcePath, long offset,
+        long length) {
+      return client.uploadPartCopy(UploadPartCopyRequest.builder()
+          .sourceBucket(bucket)
+          .sourceKey(addSubPathIfPresent(sourcePath))
+          .copySourceRange(MultipartComposer.copySourceRange(offset, length))
+          .destinationBucket(bucket)
+          .destinationKey(key)
+          .uploadId(uploadId)
+          .partNumber(partNumber)
+          .build())
+        .thenApply(response -> response.copyPartResult().eTag());
+    }
+
+    @Override
+    public CompletableFuture<Void> completeMultipartUpload(String uploadId, List<String> partETags) {
+      var parts = IntStream.range(0, partETags.size())
+        .mapToObj(i -> CompletedPart.builder()
+          .partNumber(i + 1)
+          .eTag(partETags.get(i))
+          .build())
+        .toList();
+      return client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+          .bucket(bucket)
+          .key(key)
+          .uploadId(uploadId)
+          .multipartUpload(CompletedMultipartUpload.builder()
+            .parts(parts)
+            .build())
+          .build())
+        .thenApply(response -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> abortMultipartUpload(String uploadId) {
+      return client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+          .bucket(bucket)
+          .key(key)
+          .uploadId(uploadId)
+          .build())
+        .thenApply(response -> null);
+    }
+  }
+
   private static AwsCredentialsProvider getCredentialsProvider(String accessKey, String secretKey) {
     if (isNotBlank(accessKey) && isNotBlank(secretKey)) {
       var awsCredentials = AwsBasicCredentials.create(accessKey, secretKey);
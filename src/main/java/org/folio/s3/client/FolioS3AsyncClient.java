@@ -0,0 +1,281 @@
+package org.folio.s3.client;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.folio.s3.exception.S3ClientException;
+
+/**
+ * Non-blocking counterpart of {@link FolioS3Client}. Every operation returns immediately with a
+ * {@link CompletableFuture} that completes once the underlying S3 request does, so that a few
+ * event-loop threads can keep many operations in flight. Failed futures complete exceptionally
+ * with {@link S3ClientException}.
+ *
+ * <p>Callbacks may run on SDK I/O threads and therefore must not block.
+ */
+public interface FolioS3AsyncClient extends AutoCloseable {
+
+  /**
+   * Writes an input stream to a file on S3-compatible storage
+   *
+   * @param path the path to the file on S3-compatible storage
+   * @param is   the input stream to write, closed when the write completes
+   * @return future with the path to the file
+   */
+  CompletableFuture<String> writeAsync(String path, InputStream is);
+
+  /**
+   * Writes Input Stream of known size to a file on S3-compatible storage
+   *
+   * @param path the path to the file on S3-compatible storage
+   * @param is   the input stream to write, closed when the write completes
+   * @param size the number of bytes to write
+   * @return future with the path to the file
+   */
+  CompletableFuture<String> writeAsync(String path, InputStream is, long size);
+
+  /**
+   * Writes Input Stream of known size to a file on S3-compatible storage with extra headers
+   *
+   * @param path         the path to the file on S3-compatible storage
+   * @param is           the input stream to write, closed when the write completes
+   * @param size         the number of bytes to write
+   * @param extraOptions additional metadata to store with the file
+   * @return future with the path to the file
+   */
+  CompletableFuture<String> writeAsync(String path, InputStream is, long size, PutObjectAdditionalOptions extraOptions);
+
+  /**
+   * Uploads a local file to S3-compatible storage. Files larger than a part are uploaded as a
+   * multipart upload whose parts are sent in parallel, each read from its slice of the file.
+   *
+   * @param path     the path to the local file to upload
+   * @param filename the path to the file on S3-compatible storage
+   * @return future with the path to the file
+   * @see FolioS3Client#upload(String, String)
+   */
+  CompletableFuture<String> uploadAsync(String path, String filename);
+
+  /**
+   * Composes multiple objects into a single object.
+   *
+   * @param destination the destination object key
+   * @param sourceKeys  the list of source object keys to compose
+   * @return future with the newly created composed object key
+   * @see FolioS3Client#compose(String, List)
+   */
+  CompletableFuture<String> composeAsync(String destination, List<String> sourceKeys);
+
+  /**
+   * Composes multiple objects into a single object, with extra headers.
+   *
+   * @param destination  the destination object key
+   * @param sourceKeys   the list of source object keys to compose
+   * @param extraOptions additional metadata to store with the file
+   * @return future with the newly created composed object key
+   * @see FolioS3Client#compose(String, List, PutObjectAdditionalOptions)
+   */
+  CompletableFuture<String> composeAsync(String destination, List<String> sourceKeys,
+      PutObjectAdditionalOptions extraOptions);
+
+  /**
+   * Removes a file on S3 storage
+   *
+   * @param path the path to the file to delete
+   * @return future with path of removed file
+   */
+  CompletableFuture<String> removeAsync(String path);
+
+  /**
+   * Removes files on S3 storage
+   *
+   * @param paths array of file paths to delete
+   * @return future with list of deleted file paths
+   */
+  CompletableFuture<List<String>> removeAsync(String... paths);
+
+  /**
+   * Removes files on S3 storage in batches of up to 1000 keys, several batches at once
+   *
+   * @param paths file paths to delete
+   * @return future with removed paths and failed paths with their error
+   * @see FolioS3Client#removeAll(Collection)
+   */
+  CompletableFuture<RemoveResult> removeAllAsync(Collection<String> paths);
+
+  /**
+   * Opens a file on remote storage. The returned input stream should be read and closed
+   * properly; reading from it blocks.
+   *
+   * @param path - the path to the file on S3-compatible storage
+   * @return future with a new input stream with file content
+   */
+  CompletableFuture<InputStream> readAsync(String path);
+
+  /**
+   * Opens a byte range of a file on remote storage.
+   *
+   * @param path   - the path to the file on S3-compatible storage
+   * @param offset - the position of the first byte to read
+   * @param length - the maximum number of bytes to read, fewer are returned at the end of the file
+   * @return future with a new input stream with the requested file content
+   * @see FolioS3Client#read(String, long, long)
+   */
+  CompletableFuture<InputStream> readAsync(String path, long offset, long length);
+
+  /**
+   * Opens a file on remote storage from the given position to its end.
+   *
+   * @param path   - the path to the file on S3-compatible storage
+   * @param offset - the position of the first byte to read
+   * @return future with a new input stream with the file content starting at offset
+   * @see FolioS3Client#read(String, long)
+   */
+  CompletableFuture<InputStream> readAsync(String path, long offset);
+
+  /**
+   * Downloads a file from remote storage to a local file, fetching byte ranges of it in parallel.
+   *
+   * @param path   - the path to the file on S3-compatible storage
+   * @param target - the local file to write to
+   * @return future with the local file
+   * @see FolioS3Client#download(String, Path)
+   */
+  CompletableFuture<Path> downloadAsync(String path, Path target);
+
+  /**
+   * Get list of object paths
+   *
+   * @param path - the path to the file on S3-compatible storage
+   * @return future with list of object paths
+   */
+  CompletableFuture<List<String>> listAsync(String path);
+
+  /**
+   * Get list of object paths, recursively
+   *
+   * @param path - the path to the file on S3-compatible storage
+   * @return future with list of object paths
+   */
+  CompletableFuture<List<String>> listRecursiveAsync(String path);
+
+  /**
+   * Get iterable list of object paths
+   *
+   * @param path       - the path to the file on S3-compatible storage
+   * @param maxKeys    - maximum number of keys requested per page
+   * @param startAfter - the key to start listing after
+   * @return future with list of object paths
+   */
+  CompletableFuture<List<String>> listAsync(String path, int maxKeys, String startAfter);
+
+  /**
+   * Get list of objects with their size, ETag and last-modified time
+   *
+   * @param path - the path to the file on S3-compatible storage
+   * @return future with list of objects
+   * @see FolioS3Client#listWithMetadata(String)
+   */
+  CompletableFuture<List<ObjectInfo>> listWithMetadataAsync(String path);
+
+  /**
+   * Get list of objects with their size, ETag and last-modified time, recursively
+   *
+   * @param path - the path to the file on S3-compatible storage
+   * @return future with list of objects
+   * @see FolioS3Client#listRecursiveWithMetadata(String)
+   */
+  CompletableFuture<List<ObjectInfo>> listRecursiveWithMetadataAsync(String path);
+
+  /**
+   * Get iterable list of objects with their size, ETag and last-modified time
+   *
+   * @param path       - the path to the file on S3-compatible storage
+   * @param maxKeys    - maximum number of keys requested per page
+   * @param startAfter - the key to start listing after
+   * @return future with list of objects
+   * @see FolioS3Client#listWithMetadata(String, int, String)
+   */
+  CompletableFuture<List<ObjectInfo>> listWithMetadataAsync(String path, int maxKeys, String startAfter);
+
+  /**
+   * Returns size of the object on S3 storage
+   *
+   * @param path - the path to the file on S3-compatible storage
+   * @return future with size of the object
+   */
+  CompletableFuture<Long> getSizeAsync(String path);
+
+  /**
+   * Initiates a multipart upload.
+   *
+   * @param path - the path to the file on S3-compatible storage
+   * @return future with the multipart upload ID
+   * @see FolioS3Client#initiateMultipartUpload(String)
+   */
+  CompletableFuture<String> initiateMultipartUploadAsync(String path);
+
+  /**
+   * Uploads a part of a multipart upload from a local file
+   *
+   * @param path       - the path to the file on S3-compatible storage
+   * @param uploadId   - the upload ID from {@link #initiateMultipartUploadAsync(String)}
+   * @param partNumber - the part number of the part to upload, starts at 1
+   * @param filename   - the local uploaded file on disk
+   * @return future with the upload's eTag
+   */
+  CompletableFuture<String> uploadMultipartPartAsync(String path, String uploadId, int partNumber, String filename);
+
+  /**
+   * Uploads a byte range of a local file as a part of a multipart upload
+   *
+   * @param path       - the path to the file on S3-compatible storage
+   * @param uploadId   - the upload ID from {@link #initiateMultipartUploadAsync(String)}
+   * @param partNumber - the part number of the part to upload, starts at 1
+   * @param filename   - the local file on disk
+   * @param offset     - the position of the first byte of the part in the file
+   * @param length     - the number of bytes of the part
+   * @return future with the upload's eTag
+   * @see FolioS3Client#uploadMultipartPart(String, String, int, String, long, long)
+   */
+  CompletableFuture<String> uploadMultipartPartAsync(String path, String uploadId, int partNumber, String filename,
+      long offset, long length);
+
+  /**
+   * Aborts a multipart upload.
+   *
+   * @param path     - the path to the file on S3-compatible storage
+   * @param uploadId - the upload ID from {@link #initiateMultipartUploadAsync(String)}
+   * @return future completed when the upload is aborted
+   * @see FolioS3Client#abortMultipartUpload(String, String)
+   */
+  CompletableFuture<Void> abortMultipartUploadAsync(String path, String uploadId);
+
+  /**
+   * Completes a multipart upload.
+   *
+   * @param path      - the path to the file on S3-compatible storage
+   * @param uploadId  - the upload ID from {@link #initiateMultipartUploadAsync(String)}
+   * @param partETags - the list of uploaded parts' eTags
+   * @return future completed when the upload is completed
+   * @see FolioS3Client#completeMultipartUpload(String, String, List)
+   */
+  CompletableFuture<Void> completeMultipartUploadAsync(String path, String uploadId, List<String> partETags);
+
+  /**
+   * Prepares the client for its first requests.
+   *
+   * @return future completed when the client is warmed up
+   * @see FolioS3Client#warmUp()
+   */
+  CompletableFuture<Void> warmUpAsync();
+
+  /**
+   * Releases resources held by the client, such as thread pools and connections.
+   */
+  @Override
+  void close();
+}
@@ -3,15 +3,20 @@ package org.folio.s3.client;
 import io.minio.http.Method;
 
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
-public interface FolioS3Client {
+public interface FolioS3Client extends AutoCloseable {
   /**
-   * Upload file on S3-compatible storage
+   * Upload file on S3-compatible storage. Files larger than a part are uploaded as a multipart
+   * upload whose parts are sent in parallel.
    *
-   * @param path     the path to the file on S3-compatible storage
-   * @param filename path to uploaded file
+   * @param path     path to the local file to upload
+   * @param filename the path to the file on S3-compatible storage
    * @return the path to the file
    */
   String upload(String path, String filename);
@@ -23,6 +28,7 @@ public interface FolioS3Client {
    * @param path the path to the file on S3-compatible storage
    * @param is   input stream with appendable data
    * @return path of updated file
+   * @see #getAppendLog(String)
    */
   String append(String path, InputStream is);
 
@@ -57,8 +63,9 @@ public interface FolioS3Client {
   String write(String path, InputStream is, long size, PutObjectAdditionalOptions extraOptions);
 
   /**
-   * Composes multiple objects into a single object. Note that each object
-   *   except the last must be at least 5MB (minimum multipart part size)
+   * Composes multiple objects into a single object. Objects of at least 5MB (minimum multipart
+   *   part size) are copied server-side; adjacent smaller objects are downloaded and uploaded
+   *   together, so sources of any size can be composed
    *
    * @param destination the destination object key
    * @param sourceKeys  the list of source object keys to compose
@@ -67,9 +74,9 @@ public interface FolioS3Client {
   String compose(String destination, List<String> sourceKeys);
 
   /**
-   * Composes multiple objects into a single object, with extra headers. Note
-   *   that each object except the last must be at least 5MB (minimum multipart
-   *   part size)
+   * Composes multiple objects into a single object, with extra headers. Objects
+   *   of at least 5MB (minimum multipart part size) are copied server-side;
+   *   adjacent smaller objects are downloaded and uploaded together
    *
    * @param destination  the destination object key
    * @param sourceKeys   the list of source object keys to compose
@@ -94,6 +101,34 @@ public interface FolioS3Client {
    */
   List<String> remove(String... paths);
 
+  /**
+   * Removes files on S3 storage in batches of up to 1000 keys, several batches at once. Unlike
+   * {@link #remove(String...)} it doesn't fail if some files can't be removed but reports them.
+   *
+   * @param paths file paths to delete
+   * @return removed paths and failed paths with their error
+   */
+  RemoveResult removeAll(Collection<String> paths);
+
+  /**
+   * Removes all files under the path. Keys are deleted page by page while the listing
+   * proceeds, so the full key set is never held in memory.
+   *
+   * @param path the path to remove files under
+   * @return the number of removed files
+   */
+  long removeRecursive(String path);
+
+  /**
+   * Removes all files under the path, reporting the result of every batch of up to 1000 keys.
+   *
+   * @param path     the path to remove files under
+   * @param listener called with the result of each batch, one call at a time; may run on SDK threads
+   * @return the number of removed files
+   * @see #removeRecursive(String)
+   */
+  long removeRecursive(String path, Consumer<RemoveResult> listener);
+
   /**
    * Opens a file on remote storage, returns an input stream to read from the
    * file. InputStream should be read and closed properly.
@@ -103,6 +138,37 @@ public interface FolioS3Client {
    */
   InputStream read(String path);
 
+  /**
+   * Opens a byte range of a file on remote storage, only the requested bytes are transferred.
+   * InputStream should be read and closed properly.
+   *
+   * @param path   - the path to the file on S3-compatible storage
+   * @param offset - the position of the first byte to read
+   * @param length - the maximum number of bytes to read, fewer are returned at the end of the file
+   * @return a new input stream with the requested file content
+   */
+  InputStream read(String path, long offset, long length);
+
+  /**
+   * Opens a file on remote storage from the given position to its end. InputStream should be
+   * read and closed properly.
+   *
+   * @param path   - the path to the file on S3-compatible storage
+   * @param offset - the position of the first byte to read
+   * @return a new input stream with the file content starting at offset
+   */
+  InputStream read(String path, long offset);
+
+  /**
+   * Downloads a file from remote storage to a local file, fetching byte ranges of it in
+   * parallel. An existing local file is overwritten; it is deleted if the download fails.
+   *
+   * @param path   - the path to the file on S3-compatible storage
+   * @param target - the local file to write to
+   * @return the local file
+   */
+  Path download(String path, Path target);
+
   /**
    * Get list of object paths
    *
@@ -119,6 +185,55 @@ public interface FolioS3Client {
    */
   List<String> listRecursive(String path);
 
+  /**
+   * Get list of objects with their size, ETag and last-modified time, as returned by the
+   * listing, without a request per object. Directories are returned as entries with
+   * {@link ObjectInfo#directory()} set.
+   *
+   * @param path - the path to the file on S3-compatible storage
+   * @return list of objects
+   */
+  List<ObjectInfo> listWithMetadata(String path);
+
+  /**
+   * Get list of objects with their size, ETag and last-modified time, recursively
+   *
+   * @param path - the path to the file on S3-compatible storage
+   * @return list of objects
+   * @see #listWithMetadata(String)
+   */
+  List<ObjectInfo> listRecursiveWithMetadata(String path);
+
+  /**
+   * Get iterable list of objects with their size, ETag and last-modified time
+   *
+   * @param path       - the path to the file on S3-compatible storage
+   * @param maxKeys    - maximum number of keys requested per page
+   * @param startAfter - the key to start listing after
+   * @return list of objects
+   * @see #listWithMetadata(String)
+   */
+  List<ObjectInfo> listWithMetadata(String path, int maxKeys, String startAfter);
+
+  /**
+   * Get a lazy stream of object paths. Pages are fetched as the stream is consumed, so
+   * processing starts with the first page and a short-circuiting or closed stream stops
+   * fetching.
+   *
+   * @param path - the path to the file on S3-compatible storage
+   * @return stream of object paths
+   */
+  Stream<String> listAsStream(String path);
+
+  /**
+   * Get a lazy stream of object paths, recursively. Pages are fetched as the stream is consumed.
+   *
+   * @param path - the path to the file on S3-compatible storage
+   * @return stream of object paths
+   * @see #listAsStream(String)
+   */
+  Stream<String> listRecursiveAsStream(String path);
+
   /**
    * Get iterable list of object paths
    *
@@ -135,6 +250,26 @@ public interface FolioS3Client {
    */
   long getSize(String path);
 
+  /**
+   * Opens an output stream that uploads the written bytes to a file as a multipart upload, part
+   * by part in the background. Closing the stream completes the upload.
+   *
+   * @param path - the path to the file on S3-compatible storage
+   * @return a new output stream to the file
+   * @see S3OutputStream
+   */
+  S3OutputStream getOutputStream(String path);
+
+  /**
+   * Opens an output stream that uploads the written bytes to a file, with extra headers
+   *
+   * @param path         - the path to the file on S3-compatible storage
+   * @param extraOptions - additional metadata to store with the file
+   * @return a new output stream to the file
+   * @see #getOutputStream(String)
+   */
+  S3OutputStream getOutputStream(String path, PutObjectAdditionalOptions extraOptions);
+
   /**
    * Returns RemoteStorageWriter of the S3Client
    *
@@ -144,6 +279,27 @@ public interface FolioS3Client {
    */
   RemoteStorageWriter getRemoteStorageWriter(String path, int size);
 
+  /**
+   * Returns a RemoteStorageWriter that uploads the written text as a multipart upload while it
+   * is being written, without a temp file. Closing the writer uploads the last part and
+   * completes the upload.
+   *
+   * @param path - the path to the file on S3-compatible storage
+   * @return RemoteStorageWriter instance
+   */
+  RemoteStorageWriter getStreamingRemoteStorageWriter(String path);
+
+  /**
+   * Opens an append log: a file that is appended to in segments listed by a manifest and
+   * compacted in the background, so that each append only transfers the appended bytes. An
+   * existing log is resumed from its manifest.
+   *
+   * @param path - the path of the log on S3-compatible storage
+   * @return the append log, to be closed when no longer used
+   * @see AppendLog
+   */
+  AppendLog getAppendLog(String path);
+
   /**
    * Returns presigned GET url for object on S3-compatible storage
    *
@@ -177,6 +333,14 @@ public interface FolioS3Client {
    */
   void createBucketIfNotExists();
 
+  /**
+   * Prepares the client for its first requests: resolves the endpoint, fetches credentials,
+   * looks up the bucket region if it is not configured, and opens
+   * {@link S3ClientProperties#getWarmUpConnections()} pooled connections, at least one. Runs at
+   * construction if that property is set.
+   */
+  void warmUp();
+
   /**
    * Initiates a multipart upload, returning the upload ID.
    *
@@ -219,6 +383,31 @@ public interface FolioS3Client {
       int partNumber,
       String filename);
 
+  /**
+   * Uploads a byte range of a local file as a part of a multipart upload, so several parts of
+   * the same file can be uploaded concurrently without splitting it first. {@link AwsS3Client}
+   * reads the slice from the file while it is sent; {@link MinioS3Client} reads it into a part
+   * buffer of the slice's length first, taken from the memory budget, and only streams slices too
+   * large for an array.
+   *
+   * @param path       - the path to the file on S3-compatible storage
+   * @param uploadId   - the upload ID from
+   *                   {@link #initiateMultipartUpload(String)}
+   * @param partNumber - the part number of the part to upload, starts at 1
+   * @param filename   - the local file on disk
+   * @param offset     - the position of the first byte of the part in the file
+   * @param length     - the number of bytes of the part
+   * @return the upload's eTag
+   * @see #uploadMultipartPart(String, String, int, String)
+   */
+  String uploadMultipartPart(
+      String path,
+      String uploadId,
+      int partNumber,
+      String filename,
+      long offset,
+      long length);
+
   /**
    * Aborts a multipart upload. Note: **this may need to be done multiple times**
    *
@@ -247,4 +436,11 @@ public interface FolioS3Client {
       String path,
       String uploadId,
       List<String> partETags);
+
+  /**
+   * Releases resources held by the client, such as thread pools and connections. Running uploads
+   * are given a chance to finish; the client must not be used afterwards.
+   */
+  @Override
+  void close();
 }
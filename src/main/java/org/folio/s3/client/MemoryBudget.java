@@ -0,0 +1,127 @@
+package org.folio.s3.client;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Byte semaphore that caps the memory all uploads of a client hold in buffers at once.
+ *
+ * <p>Capacity is granted in request order, so a large request is not starved by a stream of
+ * small ones. A request larger than the whole budget is treated as a request for the whole
+ * budget, so that it can still proceed alone.
+ */
+class MemoryBudget {
+
+  private static final MemoryBudget UNLIMITED = new MemoryBudget(Long.MAX_VALUE);
+
+  private final long capacity;
+  private final Deque<Waiter> waiters = new ArrayDeque<>();
+  private long available;
+
+  /**
+   * @param capacity the number of bytes that may be held at once
+   */
+  MemoryBudget(long capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive");
+    }
+    this.capacity = capacity;
+    this.available = capacity;
+  }
+
+  /**
+   * @return budget that never blocks
+   */
+  static MemoryBudget unlimited() {
+    return UNLIMITED;
+  }
+
+  /**
+   * Blocks until the bytes are available and takes them.
+   */
+  void acquire(long bytes) throws InterruptedException {
+    var future = acquireAsync(bytes);
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      if (!future.cancel(false)) {
+        // granted concurrently
+        release(bytes);
+      }
+      throw e;
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  /**
+   * Takes the bytes as soon as they are available. The future may be completed on a thread
+   * releasing capacity, so dependent actions must not block. Cancelling the future withdraws the
+   * request.
+   *
+   * @return future completed once the bytes have been taken
+   */
+  CompletableFuture<Void> acquireAsync(long bytes) {
+    if (this == UNLIMITED) {
+      return CompletableFuture.completedFuture(null);
+    }
+    long amount = Math.min(bytes, capacity);
+    synchronized (this) {
+      removeCancelledWaiters();
+      if (waiters.isEmpty() && available >= amount) {
+        available -= amount;
+        return CompletableFuture.completedFuture(null);
+      }
+      var waiter = new Waiter(amount, new CompletableFuture<>());
+      waiters.add(waiter);
+      return waiter.future();
+    }
+  }
+
+  /**
+   * Gives back bytes taken by {@link #acquire(long)} or {@link #acquireAsync(long)}.
+   */
+  void release(long bytes) {
+    if (this == UNLIMITED) {
+      return;
+    }
+    List<Waiter> granted = new ArrayList<>();
+    synchronized (this) {
+      available += Math.min(bytes, capacity);
+      removeCancelledWaiters();
+      while (!waiters.isEmpty() && waiters.peek().amount() <= available) {
+        var waiter = waiters.poll();
+        available -= waiter.amount();
+        granted.add(waiter);
+        removeCancelledWaiters();
+      }
+    }
+    // complete outside the lock, dependent actions run on this thread
+    for (var waiter : granted) {
+      if (!waiter.future().complete(null)) {
+        // cancelled in the meantime
+        release(waiter.amount());
+      }
+    }
+  }
+
+  private void removeCancelledWaiters() {
+    while (!waiters.isEmpty() && waiters.peek().future().isDone()) {
+      waiters.poll();
+    }
+  }
+
+  /**
+   * @return the number of bytes that can be taken without waiting
+   */
+  synchronized long available() {
+    return available;
+  }
+
+  private record Waiter(long amount, CompletableFuture<Void> future) {
+  }
+}
@@ -2,52 +2,66 @@ package org.folio.s3.client;
 
 import static io.minio.ObjectWriteArgs.MAX_PART_SIZE;
 import static io.minio.ObjectWriteArgs.MIN_MULTIPART_SIZE;
-import static org.apache.commons.lang3.StringUtils.EMPTY;
-import static org.apache.commons.lang3.StringUtils.isEmpty;
-import static org.apache.commons.lang3.StringUtils.replaceOnce;
 
-import java.io.FileInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
 import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.function.UnaryOperator;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.net.SocketFactory;
 
 import io.minio.BucketExistsArgs;
-import io.minio.ComposeObjectArgs;
-import io.minio.ComposeSource;
 import io.minio.GetObjectArgs;
 import io.minio.GetPresignedObjectUrlArgs;
-import io.minio.ListObjectsArgs;
 import io.minio.MakeBucketArgs;
 import io.minio.MinioAsyncClient;
+import io.minio.ObjectWriteResponse;
 import io.minio.PutObjectArgs;
 import io.minio.RemoveObjectArgs;
-import io.minio.RemoveObjectsArgs;
+import io.minio.S3Escaper;
 import io.minio.StatObjectArgs;
+import io.minio.StatObjectResponse;
 import io.minio.UploadObjectArgs;
+import io.minio.http.HttpUtils;
 import io.minio.http.Method;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.folio.s3.client.impl.ExtendedMinioAsyncClient;
 import org.folio.s3.exception.S3ClientException;
 
 import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.Multimaps;
 
 import io.minio.credentials.IamAwsProvider;
 import io.minio.credentials.Provider;
 import io.minio.credentials.StaticProvider;
 import io.minio.messages.DeleteObject;
+import io.minio.messages.ListBucketResultV2;
 import io.minio.messages.Part;
 import lombok.extern.log4j.Log4j2;
 import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 
 @Log4j2
@@ -55,28 +69,69 @@ import okhttp3.OkHttpClient;
 // 2221: we want to catch the exceptions from the minio client, but the list is long,
 //         so we simply specify `Exception` for simplicity
 @SuppressWarnings({"java:S2142", "java:S2221"})
-public class MinioS3Client implements FolioS3Client {
+public class MinioS3Client extends AbstractS3Client {
 
   private static final String PARAM_MULTIPART_PART_NUMBER = "partNumber";
   private static final String PARAM_MULTIPART_UPLOAD_ID = "uploadId";
-  private static final int EXPIRATION_TIME_IN_MINUTES = 10;
+  private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+  /**
+   * MinIO default connect, read and write timeout.
+   */
+  private static final long DEFAULT_HTTP_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+  /**
+   * OkHttp defaults of the connection pool.
+   */
+  private static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+  private static final int DEFAULT_KEEP_ALIVE_SECONDS = 300;
   private final ExtendedMinioAsyncClient client;
-  private final String bucket;
+  private final OkHttpClient httpClient;
   private final String region;
-  protected final String subPath;
 
   MinioS3Client(S3ClientProperties properties, ExtendedMinioAsyncClient client) {
+    this(properties, client, null);
+  }
+
+  private MinioS3Client(S3ClientProperties properties, OkHttpClient httpClient) {
+    this(properties, createClient(properties, httpClient), httpClient);
+  }
+
+  private MinioS3Client(S3ClientProperties properties, ExtendedMinioAsyncClient client, OkHttpClient httpClient) {
+    super(properties);
     region = properties.getRegion();
-    bucket = properties.getBucket();
-    subPath = properties.getSubPath();
     this.client = client;
+    this.httpClient = httpClient;
+    warmUpInBackground();
   }
 
   public MinioS3Client(S3ClientProperties properties) {
-    this(properties, createClient(properties));
+    this(properties, createHttpClient(properties));
+  }
+
+  private MinioS3Client(MinioS3Client shared, String subPath, Runnable release) {
+    super(shared, subPath, release);
+    region = shared.region;
+    client = shared.client;
+    httpClient = shared.httpClient;
+  }
+
+  @Override
+  protected AbstractS3Client withSubPath(String subPath, Runnable release) {
+    return new MinioS3Client(this, subPath, release);
+  }
+
+  /**
+   * MinIO sends part bodies from byte arrays only, so its part buffers live on the heap.
+   */
+  @Override
+  protected boolean useDirectBuffers() {
+    return false;
   }
 
   static ExtendedMinioAsyncClient createClient(S3ClientProperties properties) {
+    return createClient(properties, createHttpClient(properties));
+  }
+
+  private static ExtendedMinioAsyncClient createClient(S3ClientProperties properties, OkHttpClient httpClient) {
     final String accessKey = properties.getAccessKey();
     final String secretKey = properties.getSecretKey();
     final String endpoint = properties.getEndpoint();
@@ -87,21 +142,12 @@ public class MinioS3Client implements FolioS3Client {
         StringUtils.isNotBlank(accessKey) ? "<set>" : "<not set>", StringUtils.isNotBlank(secretKey) ? "<set>" : "<not set>");
 
     var builder = MinioAsyncClient.builder()
-      .endpoint(endpoint);
+      .endpoint(endpoint)
+      .httpClient(httpClient);
     if (StringUtils.isNotBlank(region)) {
       builder.region(region);
     }
 
-    var idleKeepAliveSeconds = properties.getIdleKeepAliveSeconds();
-    if (idleKeepAliveSeconds != null) {
-      log.info("Configuring OkHttp connection pool with idle keep-alive of {}s", idleKeepAliveSeconds);
-      // 5 = OkHttp default maxIdleConnections; only the keep-alive duration is customised
-      var httpClient = new OkHttpClient.Builder()
-        .connectionPool(new ConnectionPool(5, idleKeepAliveSeconds, TimeUnit.SECONDS))
-        .build();
-      builder.httpClient(httpClient);
-    }
-
     Provider provider;
     if (StringUtils.isNotBlank(accessKey) && StringUtils.isNotBlank(secretKey)) {
       provider = new StaticProvider(accessKey, secretKey, null);
@@ -114,6 +160,38 @@ public class MinioS3Client implements FolioS3Client {
     return ExtendedMinioAsyncClient.build(builder);
   }
 
+  /**
+   * Creates the OkHttp client with the MinIO defaults, tuned by the transport properties. The
+   * dispatcher limits the requests in flight, since the MinIO async client enqueues every call.
+   */
+  static OkHttpClient createHttpClient(S3ClientProperties properties) {
+    var maxConnections = properties.getMaxConnections();
+    var dispatcher = new Dispatcher();
+    if (maxConnections != null) {
+      dispatcher.setMaxRequests(maxConnections);
+    }
+    var maxRequestsPerHost = properties.getMaxRequestsPerHost() != null ? properties.getMaxRequestsPerHost()
+      : maxConnections;
+    if (maxRequestsPerHost != null) {
+      dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+    }
+    var maxIdleConnections = Objects.requireNonNullElse(maxConnections, DEFAULT_MAX_IDLE_CONNECTIONS);
+    var keepAliveSeconds = Objects.requireNonNullElse(properties.getIdleKeepAliveSeconds(), DEFAULT_KEEP_ALIVE_SECONDS);
+    log.info("Configuring OkHttp with {} requests per host, {} idle connections kept for {}s",
+        dispatcher.getMaxRequestsPerHost(), maxIdleConnections, keepAliveSeconds);
+    var builder = HttpUtils.newDefaultHttpClient(
+        Objects.requireNonNullElse(properties.getConnectTimeoutMillis(), DEFAULT_HTTP_TIMEOUT_MILLIS),
+        Objects.requireNonNullElse(properties.getWriteTimeoutMillis(), DEFAULT_HTTP_TIMEOUT_MILLIS),
+        Objects.requireNonNullElse(properties.getReadTimeoutMillis(), DEFAULT_HTTP_TIMEOUT_MILLIS))
+      .newBuilder()
+      .dispatcher(dispatcher)
+      .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveSeconds, TimeUnit.SECONDS));
+    if (Boolean.TRUE.equals(properties.getTcpKeepAlive())) {
+      builder.socketFactory(new KeepAliveSocketFactory());
+    }
+    return builder.build();
+  }
+
   public void createBucketIfNotExists() {
     try {
       if (StringUtils.isBlank(bucket)) {
@@ -139,29 +217,8 @@ public class MinioS3Client implements FolioS3Client {
     }
   }
 
-  private String upload(String path, String filename, Map<String, String> headers) {
-    try {
-      return client.uploadObject(UploadObjectArgs.builder()
-        .bucket(bucket)
-        .region(region)
-        .object(addSubPathIfPresent(filename))
-        .headers(headers)
-        .filename(path)
-        .build())
-        .get()
-        .object();
-    } catch (Exception e) {
-      throw new S3ClientException("Cannot upload file: " + path, e);
-    }
-  }
-
-  @Override
-  public String upload(String path, String filename) {
-    return upload(path, filename, new HashMap<>());
-  }
-
   /**
-   * {@code @deprecated, won't be used in future due to unstable work}
+   * {@code @deprecated, won't be used in future due to unstable work}, use {@link #getAppendLog(String)}
    */
   @Deprecated(forRemoval = true)
   @Override
@@ -217,196 +274,111 @@ public class MinioS3Client implements FolioS3Client {
     }
   }
 
+  /**
+   * Without a configured region MinIO looks up the bucket region first and caches it.
+   */
   @Override
-  public String write(String path, InputStream is) {
-    // size is not implemented in minio client
-    return write(path, is, 0L, PutObjectAdditionalOptions.builder().build());
-  }
-
-  @Override
-  public String write(String path, InputStream is, long size) {
-    // size is not implemented in minio client
-    return write(path, is, 0L, PutObjectAdditionalOptions.builder().build());
-  }
-
-  @Override
-  public String write(String path, InputStream is, long size, PutObjectAdditionalOptions extraOptions) {
-    log.debug("Writing with using Minio client");
-    try (is) {
-      String obj = client.putObject(PutObjectArgs.builder()
+  protected CompletableFuture<Boolean> bucketExistsAsync() {
+    return async(() -> client.bucketExists(BucketExistsArgs.builder()
         .bucket(bucket)
         .region(region)
-        .object(addSubPathIfPresent(path))
-        .stream(is, -1, MIN_MULTIPART_SIZE)
-        .extraHeaders(PutObjectAdditionalOptions.toMinioHeaders(extraOptions))
-        .build())
-        .get()
-        .object();
-
-      return removeSubPathIfPresent(obj);
-    } catch (Exception e) {
-      throw new S3ClientException("Cannot write stream: " + path, e);
-    }
+        .build()));
   }
 
   @Override
-  public String compose(String destination, List<String> sourceKeys) {
-    return compose(destination, sourceKeys, null);
+  protected MultipartUploadTarget createUploadTarget(String path, PutObjectAdditionalOptions extraOptions) {
+    return new MinioMultipartUploadTarget(addSubPathIfPresent(path), extraOptions);
   }
 
   @Override
-  public String compose(String destination, List<String> sourceKeys, PutObjectAdditionalOptions extraOptions) {
-    try {
-      String obj = client.composeObject(ComposeObjectArgs.builder()
-        .bucket(bucket)
-        .region(region)
-        .object(addSubPathIfPresent(destination))
-        .sources(sourceKeys.stream()
-          .map(this::addSubPathIfPresent)
-          .map(k -> ComposeSource.builder()
-            .bucket(bucket)
-            .region(region)
-            .object(k)
-            .build())
-          .toList())
-        .extraHeaders(PutObjectAdditionalOptions.toMinioHeaders(extraOptions))
-        .build())
-        .get()
-        .object();
-
-      return removeSubPathIfPresent(obj);
-    } catch (Exception e) {
-      throw new S3ClientException("Error composing sources=[%s] into %s".formatted(sourceKeys.stream()
-        .collect(Collectors.joining(",")), destination), e);
-    }
-  }
-
-  @Override
-  public String remove(String path) {
-    try {
-      client.removeObject(RemoveObjectArgs.builder()
+  public CompletableFuture<String> removeAsync(String path) {
+    var future = async(() -> client.removeObject(RemoveObjectArgs.builder()
         .bucket(bucket)
         .region(region)
         .object(addSubPathIfPresent(path))
-        .build())
-        .get();
-
-      return path;
-    } catch (Exception e) {
-      throw new S3ClientException("Error deleting file: ", e);
-    }
+        .build()))
+      .thenApply(v -> path);
+    return withErrorMessage(future, "Error deleting file: " + path);
   }
 
   @Override
-  public List<String> remove(String... paths) {
-    try {
-      var errors = client.removeObjects(RemoveObjectsArgs.builder()
-        .bucket(bucket)
-        .region(region)
-        .objects(Arrays.stream(paths)
-          .map(this::addSubPathIfPresent)
-          .map(DeleteObject::new)
-          .toList())
-        .build())
-        .iterator();
-
-      if (errors.hasNext()) {
-        throw new S3ClientException("Error deleting");
-      }
-
-      return Arrays.stream(paths).toList();
-    } catch (Exception e) {
-      throw new S3ClientException("Error deleting file: ", e);
-    }
-  }
-
-  private List<String> list(String path, UnaryOperator<ListObjectsArgs.Builder> addArgs) {
-    try {
-      List<String> list = new ArrayList<>();
-
-      client.listObjects(addArgs.apply(ListObjectsArgs.builder()
-        .bucket(bucket)
-        .region(region)
-        .prefix(addSubPathIfPresent(path)))
-        .build())
-        .iterator()
-        .forEachRemaining(itemResult -> {
-          try {
-            list.add(removeSubPathIfPresent(itemResult.get()
-              .objectName()));
-          } catch (Exception e) {
-            throw new S3ClientException("Error populating list of objects for path: " + path, e);
-          }
-        });
-      return list;
-    } catch (Exception e) {
-      throw new S3ClientException("Error getting list of objects for path: " + path, e);
-    }
+  protected CompletableFuture<RemoveResult> removeBatchAsync(List<String> paths) {
+    var objects = paths.stream()
+      .map(this::addSubPathIfPresent)
+      .map(DeleteObject::new)
+      .toList();
+    // quiet mode: the response lists only the keys that could not be deleted
+    return async(() -> client.deleteObjectsAsync(bucket, region, objects, true, false, null, null))
+      .thenApply(response -> {
+        Map<String, String> failed = new HashMap<>();
+        response.result()
+          .errorList()
+          .forEach(error -> failed.put(removeSubPathIfPresent(error.objectName()), error.code() + ": " + error.message()));
+        return new RemoveResult(paths.stream()
+          .filter(path -> !failed.containsKey(path))
+          .toList(), failed);
+      })
+      .exceptionally(e -> {
+        var message = String.valueOf(unwrap(e).getMessage());
+        log.warn("Error deleting {} files: {}", paths.size(), message);
+        return new RemoveResult(List.of(), paths.stream()
+          .collect(Collectors.toMap(Function.identity(), path -> message, (a, b) -> a)));
+      });
   }
 
   @Override
-  public List<String> list(String path) {
-    return list(path, args -> args.maxKeys(1));
+  protected CompletableFuture<ListPage> listPageAsync(String prefix, boolean recursive, Integer maxKeys,
+      String startAfter, String continuationToken) {
+    return async(() -> client.listObjectsV2Async(bucket, region, recursive ? null : DELIMITER, null, startAfter,
+        maxKeys, prefix, continuationToken, false, false, null, null))
+      .thenApply(response -> toListPage(response.result()));
   }
 
-  @Override
-  public List<String> listRecursive(String path) {
-    return list(path, args -> args.recursive(true));
+  private static ListPage toListPage(ListBucketResultV2 result) {
+    var objects = result.contents()
+      .stream()
+      .map(item -> new ObjectInfo(item.objectName(), item.size(), StringUtils.strip(item.etag(), "\""),
+          item.lastModified().toInstant(), false));
+    var directories = result.commonPrefixes()
+      .stream()
+      .map(commonPrefix -> new ObjectInfo(commonPrefix.toItem().objectName(), 0, null, null, true));
+    return new ListPage(Stream.concat(objects, directories).toList(), result.isTruncated(),
+        result.nextContinuationToken());
   }
 
   @Override
-  public List<String> list(String path, int maxKeys, String startAfter) {
-    return list(path, args -> {
-      if (startAfter != null && !startAfter.isEmpty()) {
-        args = args.startAfter(addSubPathIfPresent(startAfter));
-      }
-
-      return args.maxKeys(maxKeys);
-    });
-  }
-
-  @Override
-  public InputStream read(String path) {
-    try {
-     return client.getObject(GetObjectArgs.builder()
+  public CompletableFuture<InputStream> readAsync(String path) {
+    var future = async(() -> client.getObject(GetObjectArgs.builder()
         .bucket(bucket)
         .region(region)
         .object(addSubPathIfPresent(path))
-        .build())
-        .get();
-    } catch (Exception e) {
-      throw new S3ClientException("Error creating input stream for path: " + path, e);
-    }
+        .build()))
+      .thenApply(InputStream.class::cast);
+    return withErrorMessage(future, "Error creating input stream for path: " + path);
   }
 
   @Override
-  public long getSize(String path) {
-    try {
-      return client.statObject(StatObjectArgs.builder()
+  protected CompletableFuture<InputStream> readRangeAsync(String path, long offset, Long length) {
+    var future = async(() -> client.getObject(GetObjectArgs.builder()
         .bucket(bucket)
         .region(region)
         .object(addSubPathIfPresent(path))
-        .build())
-        .get()
-        .size();
-    } catch (Exception e) {
-      throw new S3ClientException("Error getting size: " + path, e);
-    }
+        .offset(offset)
+        .length(length)
+        .build()))
+      .thenApply(InputStream.class::cast);
+    return withErrorMessage(future, "Error creating input stream for path: %s, offset: %d".formatted(path, offset));
   }
 
   @Override
-  public RemoteStorageWriter getRemoteStorageWriter(String path, int size) {
-    return new RemoteStorageWriter(path, size, this);
-  }
-
-  @Override
-  public String getPresignedUrl(String path) {
-    return getPresignedUrl(path, Method.GET);
-  }
-
-  @Override
-  public String getPresignedUrl(String path, Method method) {
-    return getPresignedUrl(path, method, EXPIRATION_TIME_IN_MINUTES, TimeUnit.MINUTES);
+  public CompletableFuture<Long> getSizeAsync(String path) {
+    var future = async(() -> client.statObject(StatObjectArgs.builder()
+        .bucket(bucket)
+        .region(region)
+        .object(addSubPathIfPresent(path))
+        .build()))
+      .thenApply(StatObjectResponse::size);
+    return withErrorMessage(future, "Error getting size: " + path);
   }
 
   @Override
@@ -426,18 +398,6 @@ public class MinioS3Client implements FolioS3Client {
     }
   }
 
-  @Override
-  public String initiateMultipartUpload(String path) {
-    try {
-      return client.createMultipartUploadAsync(bucket, region, addSubPathIfPresent(path), null, null)
-        .get()
-        .result()
-        .uploadId();
-    } catch (Exception e) {
-      throw new S3ClientException("Error initiating multipart upload for object: " + path, e);
-    }
-  }
-
   @Override
   public String getPresignedMultipartUploadUrl(
     String path,
@@ -460,84 +420,192 @@ public class MinioS3Client implements FolioS3Client {
     }
   }
 
+  /**
+   * Stops the OkHttp dispatcher threads and closes the pooled connections.
+   */
   @Override
-  public String uploadMultipartPart(
-    String path,
-    String uploadId,
-    int partNumber,
-    String filename
-  ) {
-    try {
-      InputStream stream = new FileInputStream(filename);
-      return client.putObject(
-          PutObjectArgs.builder()
-            .bucket(bucket)
-            .region(region)
-            .object(addSubPathIfPresent(path))
-            .stream(stream, -1, MAX_PART_SIZE)
-            .extraQueryParams(Map.of(PARAM_MULTIPART_UPLOAD_ID, uploadId, PARAM_MULTIPART_PART_NUMBER, String.valueOf(partNumber)))
-            .build()
-        )
-        .get()
-        .etag();
-    } catch (Exception e) {
-      throw new S3ClientException(
-        "Cannot upload part # " + partNumber + " for upload ID: " + uploadId,
-        e
-      );
+  protected void closeTransport() {
+    log.debug("Closing MinIO client");
+    if (httpClient != null) {
+      httpClient.dispatcher().executorService().shutdown();
+      httpClient.connectionPool().evictAll();
     }
   }
 
-  @Override
-  public void abortMultipartUpload(
-    String path,
-    String uploadId
-  ) {
-    try {
-       client.abortMultipartUploadAsync(bucket, region, addSubPathIfPresent(path), uploadId, null, null).get();
-    } catch (Exception e) {
-      throw new S3ClientException(
-        "Error getting presigned url for upload ID: " + uploadId,
-        e
-      );
+  /**
+   * Creates sockets with TCP keep-alive enabled. OkHttp creates unconnected sockets and
+   * connects them itself, the connecting variants are implemented for completeness.
+   */
+  private static class KeepAliveSocketFactory extends SocketFactory {
+
+    private final SocketFactory delegate = SocketFactory.getDefault();
+
+    @Override
+    public Socket createSocket() throws IOException {
+      return keepAlive(delegate.createSocket());
     }
-  }
 
-  @Override
-  public void completeMultipartUpload(
-    String path,
-    String uploadId,
-    List<String> partETags
-  ) {
-    try {
-      client.completeMultipartUploadAsync(
-        bucket,
-        region,
-        addSubPathIfPresent(path),
-        uploadId,
-        IntStream.range(0, partETags.size())
-          .mapToObj(i -> new Part(i + 1, partETags.get(i)))
-          .toArray(Part[]::new),
-        null,
-        null
-      ).get();
-    } catch (Exception e) {
-      throw new S3ClientException(
-        "Error getting presigned url for upload ID: " + uploadId,
-        e
-      );
+    @Override
+    public Socket createSocket(String host, int port) throws IOException {
+      return keepAlive(delegate.createSocket(host, port));
     }
-  }
 
-  protected String addSubPathIfPresent(String path) {
-    return fixPathWithIncorrectSymbols(isEmpty(subPath) ? path : String.format("%s/%s", subPath, path));
-  }
+    @Override
+    public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+      return keepAlive(delegate.createSocket(host, port, localHost, localPort));
+    }
+
+    @Override
+    public Socket createSocket(InetAddress host, int port) throws IOException {
+      return keepAlive(delegate.createSocket(host, port));
+    }
+
+    @Override
+    public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort)
+        throws IOException {
+      return keepAlive(delegate.createSocket(address, port, localAddress, localPort));
+    }
 
-  protected String removeSubPathIfPresent(String path) {
-    return isEmpty(subPath) ? path : replaceOnce(path, subPath + "/", EMPTY);
+    private static Socket keepAlive(Socket socket) throws IOException {
+      socket.setKeepAlive(true);
+      return socket;
+    }
   }
 
-  protected String fixPathWithIncorrectSymbols(String path) {
-    return path.replace("//", "/");
+  private class MinioMultipartUploadTarget implements MultipartUploadTarget {
+
+    private final String object;
+    private final Map<String, String> headers;
+
+    MinioMultipartUploadTarget(String object, PutObjectAdditionalOptions extraOptions) {
+      this.object = object;
+      this.headers = PutObjectAdditionalOptions.toMinioHeaders(extraOptions);
+    }
+
+    @Override
+    public CompletableFuture<Void> putObject(ByteBuffer data) {
+      return async(() -> client.putObject(PutObjectArgs.builder()
+          .bucket(bucket)
+          .region(region)
+          .object(object)
+          .stream(new ByteArrayInputStream(data.array(), data.arrayOffset() + data.position(), data.remaining()),
+              data.remaining(), -1)
+          .extraHeaders(headers)
+          .build()))
+        .thenApply(response -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> putObject(Path file) {
+      return async(() -> client.uploadObject(UploadObjectArgs.builder()
+          .bucket(bucket)
+          .region(region)
+          .object(object)
+          .headers(headers)
+          .filename(file.toString())
+          .build()))
+        .thenApply(response -> null);
+    }
+
+    @Override
+    public CompletableFuture<String> createMultipartUpload() {
+      return async(() -> client.createMultipartUploadAsync(bucket, region, object, Multimaps.forMap(headers), null))
+        .thenApply(response -> response.result().uploadId());
+    }
+
+    @Override
+    public CompletableFuture<String> uploadPart(String uploadId, int partNumber, ByteBuffer data) {
+      // minio sends byte arrays from index 0, so only part buffers at other offsets are copied
+      var bytes = data.arrayOffset() + data.position() == 0
+        ? data.array()
+        : Arrays.copyOfRange(data.array(), data.arrayOffset() + data.position(), data.arrayOffset() + data.limit());
+      return async(() -> client.uploadPartAsync(bucket, region, object, bytes, data.remaining(), uploadId, partNumber,
+          null, null))
+        .thenApply(response -> response.part().etag());
+    }
+
+    /**
+     * MinIO sends part bodies from byte arrays only, so the slice is read from the file channel
+     * into a pooled heap buffer, taken from the memory budget, rather than streamed from the file.
+     * Slices too large for an array are streamed by MinIO's own putObject instead.
+     */
+    @Override
+    public CompletableFuture<String> uploadPart(String uploadId, int partNumber, Path file, long offset,
+        long length) {
+      if (length > MAX_ARRAY_LENGTH) {
+        return uploadLargePart(uploadId, partNumber, file, offset, length);
+      }
+      return memoryBudget.acquireAsync(length)
+        .thenApplyAsync(v -> readSlice(file, offset, (int) length), executor)
+        .thenCompose(buffer -> uploadPart(uploadId, partNumber, buffer)
+          .whenComplete((eTag, e) -> {
+            bufferPool.release(buffer);
+            memoryBudget.release(length);
+          }));
+    }
+
+    private ByteBuffer readSlice(Path file, long offset, int length) {
+      var buffer = bufferPool.acquire(length);
+      boolean read = false;
+      try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        while (buffer.hasRemaining()) {
+          if (channel.read(buffer, offset + buffer.position()) < 0) {
+            throw new IOException("File %s ended before %d bytes at %d".formatted(file, length, offset));
+          }
+        }
+        read = true;
+        return buffer.flip();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      } finally {
+        if (!read) {
+          bufferPool.release(buffer);
+          memoryBudget.release(length);
+        }
+      }
+    }
+
+    private CompletableFuture<String> uploadLargePart(String uploadId, int partNumber, Path file, long offset,
+        long length) {
+      return asyncOnExecutor(() -> {
+          var channel = FileChannel.open(file, StandardOpenOption.READ).position(offset);
+          return client.putObject(PutObjectArgs.builder()
+              .bucket(bucket)
+              .region(region)
+              .object(object)
+              .stream(Channels.newInputStream(channel), length, length)
+              .extraQueryParams(Map.of(PARAM_MULTIPART_UPLOAD_ID, uploadId, PARAM_MULTIPART_PART_NUMBER,
+                  String.valueOf(partNumber)))
+              .build())
+            .whenComplete((response, e) -> IOUtils.closeQuietly(channel));
+        })
+        .thenApply(ObjectWriteResponse::etag);
+    }
+
+    @Override
+    public CompletableFuture<String> uploadPartCopy(String uploadId, int partNumber, String sourcePath, long offset,
+        long length) {
+      var copyHeaders = Map.of(
+          "x-amz-copy-source", S3Escaper.encodePath(bucket + "/" + addSubPathIfPresent(sourcePath)),
+          "x-amz-copy-source-range", MultipartComposer.copySourceRange(offset, length));
+      return async(() -> client.uploadPartCopyAsync(bucket, region, object, uploadId, partNumber,
+          Multimaps.forMap(copyHeaders), null))
+        .thenApply(response -> response.result().etag());
+    }
+
+    @Override
+    public CompletableFuture<Void> completeMultipartUpload(String uploadId, List<String> partETags) {
+      var parts = IntStream.range(0, partETags.size())
+        .mapToObj(i -> new Part(i + 1, partETags.get(i)))
+        .toArray(Part[]::new);
+      return async(() -> client.completeMultipartUploadAsync(bucket, region, object, uploadId, parts, null, null))
+        .thenApply(response -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> abortMultipartUpload(String uploadId) {
+      return async(() -> client.abortMultipartUploadAsync(bucket, region, object, uploadId, null, null))
+        .thenApply(response -> null);
+    }
   }
 }
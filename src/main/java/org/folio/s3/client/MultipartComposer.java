@@ -0,0 +1,350 @@
+package org.folio.s3.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.IntStream;
+
+import org.folio.s3.exception.S3ClientException;
+
+import com.google.common.collect.Lists;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Composes objects into a single object as one multipart upload, several parts at once. Sources
+ * of at least the minimum part size are copied server-side, those larger than a part as evenly
+ * sized byte ranges. Adjacent smaller sources are downloaded and concatenated into parts of at
+ * least the minimum size, so only their bytes travel through the client.
+ *
+ * <p>When the sources need more parts than a multipart upload allows, they are first composed
+ * into intermediate objects of at most that many parts each, in parallel, which are then composed
+ * the same way until they fit into the destination. The intermediates are removed afterwards.
+ */
+@Log4j2
+final class MultipartComposer {
+
+  /**
+   * S3 limit of the size of every part except the last.
+   */
+  static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+  /**
+   * S3 limit of the size of a single part, and so of a single copied range.
+   */
+  static final long MAX_PART_SIZE = 5L * 1024 * 1024 * 1024;
+
+  /**
+   * An object to compose.
+   */
+  record Source(String path, long size) {
+  }
+
+  /**
+   * A byte range of a source.
+   */
+  record Range(String path, long offset, long length) {
+  }
+
+  /**
+   * A part of the composed object: either a server-side copy of a single range, or ranges that
+   * are downloaded and uploaded as one part.
+   */
+  record Part(boolean copy, List<Range> ranges) {
+
+    static Part copy(Range range) {
+      return new Part(true, List.of(range));
+    }
+
+    static Part download(List<Range> ranges) {
+      return new Part(false, List.copyOf(ranges));
+    }
+
+    long length() {
+      return ranges.stream().mapToLong(Range::length).sum();
+    }
+  }
+
+  /**
+   * Access to the objects of the bucket a compose needs besides the destination.
+   */
+  interface Storage {
+
+    /**
+     * Opens a byte range of an object.
+     */
+    CompletableFuture<InputStream> read(String path, long offset, long length);
+
+    /**
+     * Creates the upload target of an intermediate object.
+     */
+    MultipartUploadTarget uploadTarget(String path);
+
+    /**
+     * Removes intermediate objects.
+     */
+    CompletableFuture<RemoveResult> remove(List<String> paths);
+  }
+
+  /**
+   * A part to upload to one of the objects of a compose level.
+   */
+  private record PartTask(int object, int partNumber, Part part) {
+  }
+
+  private final Storage storage;
+  private final int parallelism;
+  private final PartBufferPool bufferPool;
+  private final MemoryBudget memoryBudget;
+  private final Executor executor;
+  private long minPartSize = MIN_PART_SIZE;
+  private long maxPartSize = MAX_PART_SIZE;
+  private int maxParts = S3OutputStream.MAX_PARTS;
+
+  /**
+   * @param storage      reads downloaded ranges, creates and removes intermediate objects
+   * @param parallelism  maximum number of parts copied or uploaded at once
+   * @param bufferPool   the pool downloaded parts are buffered in
+   * @param memoryBudget the memory downloaded parts are taken from while they are held
+   * @param executor     runs the blocking reads of downloaded ranges
+   */
+  MultipartComposer(Storage storage, int parallelism, PartBufferPool bufferPool, MemoryBudget memoryBudget,
+      Executor executor) {
+    this.storage = storage;
+    this.parallelism = parallelism;
+    this.bufferPool = bufferPool;
+    this.memoryBudget = memoryBudget;
+    this.executor = executor;
+  }
+
+  /**
+   * Replaces the S3 part limits, to exercise large composes in tests.
+   */
+  MultipartComposer withLimits(long minPartSize, long maxPartSize, int maxParts) {
+    this.minPartSize = minPartSize;
+    this.maxPartSize = maxPartSize;
+    this.maxParts = maxParts;
+    return this;
+  }
+
+  /**
+   * Composes the sources, in order, into the target object.
+   *
+   * @param target          the destination object
+   * @param sources         the objects to compose
+   * @param intermediateDir prefix of the paths of intermediate objects, unique to this compose
+   */
+  CompletableFuture<Void> compose(MultipartUploadTarget target, List<Source> sources, String intermediateDir) {
+    if (sources.isEmpty()) {
+      return CompletableFuture.failedFuture(new IllegalArgumentException("At least one source is required"));
+    }
+    var intermediates = new ArrayList<String>();
+    return composeLevel(target, plan(sources, minPartSize, maxPartSize), intermediateDir, 0, intermediates)
+      .handle((v, e) -> e)
+      .thenCompose(e -> removeIntermediates(intermediates)
+        .thenApply(v -> {
+          if (e != null) {
+            throw e instanceof CompletionException completionException
+              ? completionException
+              : new CompletionException(e);
+          }
+          return null;
+        }));
+  }
+
+  /**
+   * Uploads the parts into the target when they fit, otherwise into as few intermediate objects
+   * of at most {@link #maxParts} parts as possible, and composes those one level up.
+   */
+  private CompletableFuture<Void> composeLevel(MultipartUploadTarget target, List<Part> parts, String intermediateDir,
+      int level, List<String> intermediates) {
+    if (parts.size() <= maxParts) {
+      return uploadObjects(List.of(target), List.of(parts));
+    }
+    var chunks = Lists.partition(parts, maxParts);
+    var targets = new ArrayList<MultipartUploadTarget>(chunks.size());
+    var sources = new ArrayList<Source>(chunks.size());
+    for (int i = 0; i < chunks.size(); i++) {
+      var path = "%s/%d-%d".formatted(intermediateDir, level, i);
+      intermediates.add(path);
+      targets.add(storage.uploadTarget(path));
+      sources.add(new Source(path, chunks.get(i).stream().mapToLong(Part::length).sum()));
+    }
+    var nextParts = plan(sources, minPartSize, maxPartSize);
+    if (nextParts.size() >= parts.size()) {
+      return CompletableFuture.failedFuture(new S3ClientException(
+          "Cannot compose %d parts, the composed object is too large".formatted(parts.size())));
+    }
+    log.debug("Composing {} parts through {} intermediate objects", parts.size(), chunks.size());
+    return uploadObjects(targets, chunks)
+      .thenCompose(v -> composeLevel(target, nextParts, intermediateDir, level + 1, intermediates));
+  }
+
+  /**
+   * Uploads the parts of several objects with one pool of {@link #parallelism} workers, so that
+   * a wide level keeps the same number of requests in flight as a single object.
+   */
+  private CompletableFuture<Void> uploadObjects(List<MultipartUploadTarget> targets, List<List<Part>> parts) {
+    var uploadIds = new String[targets.size()];
+    var objects = IntStream.range(0, targets.size()).boxed().toList();
+    return AbstractS3Client.forEachAsync(objects, parallelism,
+        i -> targets.get(i).createMultipartUpload().thenAccept(uploadId -> uploadIds[i] = uploadId))
+      .exceptionallyCompose(e -> abortCreated(targets, uploadIds)
+        .thenCompose(v -> CompletableFuture.failedFuture(e)))
+      .thenCompose(v -> {
+        var eTags = new String[targets.size()][];
+        var tasks = new ArrayList<PartTask>();
+        for (int i = 0; i < targets.size(); i++) {
+          eTags[i] = new String[parts.get(i).size()];
+          for (int j = 0; j < parts.get(i).size(); j++) {
+            tasks.add(new PartTask(i, j + 1, parts.get(i).get(j)));
+          }
+        }
+        var uploaded = AbstractS3Client.forEachAsync(tasks, parallelism, task -> uploadPart(targets.get(task.object()),
+              uploadIds[task.object()], task.partNumber(), task.part())
+            .thenAccept(eTag -> eTags[task.object()][task.partNumber() - 1] = eTag));
+        return CompletableFuture.allOf(objects.stream()
+          .map(i -> targets.get(i).completeOrAbort(uploadIds[i], uploaded.thenApply(x -> Arrays.asList(eTags[i]))))
+          .toArray(CompletableFuture[]::new));
+      });
+  }
+
+  private static CompletableFuture<Void> abortCreated(List<MultipartUploadTarget> targets, String[] uploadIds) {
+    return CompletableFuture.allOf(IntStream.range(0, targets.size())
+      .filter(i -> uploadIds[i] != null)
+      .mapToObj(i -> targets.get(i).abortMultipartUpload(uploadIds[i])
+        .exceptionally(e -> {
+          log.warn("Cannot abort multipart upload {}: {}", uploadIds[i], e.getMessage());
+          return null;
+        }))
+      .toArray(CompletableFuture[]::new));
+  }
+
+  private CompletableFuture<Void> removeIntermediates(List<String> intermediates) {
+    if (intermediates.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return storage.remove(intermediates)
+      .handle((result, e) -> {
+        if (e != null || result.hasFailures()) {
+          log.warn("Cannot remove intermediate objects of compose: {}",
+              e != null ? e.getMessage() : result.failed());
+        }
+        return null;
+      });
+  }
+
+  private CompletableFuture<String> uploadPart(MultipartUploadTarget target, String uploadId, int partNumber,
+      Part part) {
+    return part.copy()
+      ? target.uploadPartCopy(uploadId, partNumber, part.ranges().get(0).path(), part.ranges().get(0).offset(),
+          part.ranges().get(0).length())
+      : downloadPart(target, uploadId, partNumber, part);
+  }
+
+  private CompletableFuture<String> downloadPart(MultipartUploadTarget target, String uploadId, int partNumber,
+      Part part) {
+    int length = Math.toIntExact(part.length());
+    return memoryBudget.acquireAsync(length).thenCompose(v -> {
+      var buffer = bufferPool.acquire(length);
+      return readRanges(part.ranges(), buffer)
+        .thenCompose(data -> target.uploadPart(uploadId, partNumber, data))
+        .whenComplete((eTag, e) -> {
+          bufferPool.release(buffer);
+          memoryBudget.release(length);
+        });
+    });
+  }
+
+  /**
+   * Reads the ranges one after another into the buffer.
+   *
+   * @return the buffer, flipped for reading
+   */
+  private CompletableFuture<ByteBuffer> readRanges(List<Range> ranges, ByteBuffer buffer) {
+    var future = CompletableFuture.<Void>completedFuture(null);
+    for (var range : ranges) {
+      future = future
+        .thenCompose(v -> storage.read(range.path(), range.offset(), range.length()))
+        .thenAcceptAsync(is -> readFully(is, range, buffer), executor);
+    }
+    return future.thenApply(v -> buffer.flip());
+  }
+
+  private static void readFully(InputStream is, Range range, ByteBuffer buffer) {
+    buffer.limit(buffer.position() + (int) range.length());
+    try (is; var channel = Channels.newChannel(is)) {
+      while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+        // read until the range is complete or the stream ends
+      }
+      if (buffer.hasRemaining()) {
+        throw new IOException("%s ended after %d of %d bytes at %d"
+          .formatted(range.path(), range.length() - buffer.remaining(), range.length(), range.offset()));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Plans the parts of the composed object. Sources of at least {@code minPartSize} are copied,
+   * split into the fewest nearly equal ranges of at most {@code maxPartSize}. Smaller sources are
+   * collected with their neighbours until the collected bytes reach {@code minPartSize}; when a
+   * large source follows, only the head needed to fill up the collected part is taken from it,
+   * provided the rest can still be copied. Only the last part may stay below the minimum.
+   */
+  static List<Part> plan(List<Source> sources, long minPartSize, long maxPartSize) {
+    var parts = new ArrayList<Part>();
+    var pending = new ArrayList<Range>();
+    long pendingBytes = 0;
+    for (var source : sources) {
+      long offset = 0;
+      if (pendingBytes > 0 && source.size() - (minPartSize - pendingBytes) >= minPartSize) {
+        offset = minPartSize - pendingBytes;
+        pending.add(new Range(source.path(), 0, offset));
+        parts.add(Part.download(pending));
+        pending.clear();
+        pendingBytes = 0;
+      }
+      long remaining = source.size() - offset;
+      if (pendingBytes == 0 && remaining >= minPartSize) {
+        addCopies(parts, source.path(), offset, remaining, maxPartSize);
+      } else if (remaining > 0) {
+        pending.add(new Range(source.path(), offset, remaining));
+        pendingBytes += remaining;
+        if (pendingBytes >= minPartSize) {
+          parts.add(Part.download(pending));
+          pending.clear();
+          pendingBytes = 0;
+        }
+      }
+    }
+    if (!pending.isEmpty() || parts.isEmpty()) {
+      parts.add(Part.download(pending));
+    }
+    return parts;
+  }
+
+  private static void addCopies(List<Part> parts, String path, long offset, long length, long maxPartSize) {
+    long ranges = Math.ceilDiv(length, maxPartSize);
+    for (long i = 0; i < ranges; i++) {
+      long start = length * i / ranges;
+      parts.add(Part.copy(new Range(path, offset + start, length * (i + 1) / ranges - start)));
+    }
+  }
+
+  /**
+   * Value of the copy source range header for a range.
+   */
+  static String copySourceRange(long offset, long length) {
+    return "bytes=%d-%d".formatted(offset, offset + length - 1);
+  }
+}
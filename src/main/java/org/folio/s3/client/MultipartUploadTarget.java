@@ -0,0 +1,106 @@
+package org.folio.s3.client;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Multipart upload primitives for a single object, implemented on top of the underlying SDK.
+ * Keeps the buffering logic of {@link S3OutputStream} independent of MinIO/AWS.
+ */
+interface MultipartUploadTarget {
+
+  /**
+   * Stores the object with a single PUT request, used when the whole content fits into one part.
+   *
+   * @param data the object content, from position to limit
+   */
+  CompletableFuture<Void> putObject(ByteBuffer data);
+
+  /**
+   * Stores a local file with a single PUT request.
+   *
+   * @param file the local file
+   */
+  CompletableFuture<Void> putObject(Path file);
+
+  /**
+   * Initiates a multipart upload.
+   *
+   * @return the multipart upload ID
+   */
+  CompletableFuture<String> createMultipartUpload();
+
+  /**
+   * Uploads a single part. The buffer must not be modified until the returned future completes.
+   *
+   * @param uploadId   the upload ID from {@link #createMultipartUpload()}
+   * @param partNumber the part number, starts at 1
+   * @param data       the part content, from position to limit
+   * @return the part's eTag
+   */
+  CompletableFuture<String> uploadPart(String uploadId, int partNumber, ByteBuffer data);
+
+  /**
+   * Uploads a slice of a local file as a single part, either read from the file while it is sent
+   * or buffered first, depending on the SDK.
+   *
+   * @param uploadId   the upload ID from {@link #createMultipartUpload()}
+   * @param partNumber the part number, starts at 1
+   * @param file       the local file
+   * @param offset     the position of the slice in the file
+   * @param length     the length of the slice
+   * @return the part's eTag
+   */
+  CompletableFuture<String> uploadPart(String uploadId, int partNumber, Path file, long offset, long length);
+
+  /**
+   * Uploads a byte range of an object in the same bucket as a single part, copied server-side.
+   *
+   * @param uploadId   the upload ID from {@link #createMultipartUpload()}
+   * @param partNumber the part number, starts at 1
+   * @param sourcePath the path of the source object on S3-compatible storage
+   * @param offset     the position of the range in the source
+   * @param length     the length of the range, at least 1
+   * @return the part's eTag
+   */
+  CompletableFuture<String> uploadPartCopy(String uploadId, int partNumber, String sourcePath, long offset,
+      long length);
+
+  /**
+   * Completes a multipart upload.
+   *
+   * @param uploadId  the upload ID from {@link #createMultipartUpload()}
+   * @param partETags eTags of the uploaded parts, ordered by part number
+   */
+  CompletableFuture<Void> completeMultipartUpload(String uploadId, List<String> partETags);
+
+  /**
+   * Aborts a multipart upload.
+   *
+   * @param uploadId the upload ID from {@link #createMultipartUpload()}
+   */
+  CompletableFuture<Void> abortMultipartUpload(String uploadId);
+
+  /**
+   * Completes the upload once all parts are uploaded, or aborts it if uploading the parts or
+   * completing fails. A failure to abort is added to the original failure as suppressed.
+   *
+   * @param uploadId  the upload ID from {@link #createMultipartUpload()}
+   * @param partETags future with eTags of the uploaded parts, ordered by part number
+   */
+  default CompletableFuture<Void> completeOrAbort(String uploadId, CompletableFuture<List<String>> partETags) {
+    return partETags
+      .thenCompose(eTags -> completeMultipartUpload(uploadId, eTags))
+      .exceptionallyCompose(e -> abortMultipartUpload(uploadId)
+        .handle((v, abortError) -> {
+          var cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+          if (abortError != null) {
+            cause.addSuppressed(abortError);
+          }
+          throw new CompletionException(cause);
+        }));
+  }
+}
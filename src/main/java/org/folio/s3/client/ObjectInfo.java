@@ -0,0 +1,15 @@
+package org.folio.s3.client;
+
+import java.time.Instant;
+
+/**
+ * Object details as returned by a listing page, available without a request per object.
+ *
+ * @param key          the path to the object on S3-compatible storage
+ * @param size         the object size in bytes, {@code 0} for directories
+ * @param etag         the object's ETag without quotes, {@code null} for directories
+ * @param lastModified the time of the last modification, {@code null} for directories
+ * @param directory    whether the entry is a common prefix rather than an object
+ */
+public record ObjectInfo(String key, long size, String etag, Instant lastModified, boolean directory) {
+}
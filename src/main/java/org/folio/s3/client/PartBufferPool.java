@@ -0,0 +1,68 @@
+package org.folio.s3.client;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client-wide pool of part buffers shared by all uploads of a client, so that sustained uploads
+ * reuse the same buffers instead of allocating a large array per part.
+ *
+ * <p>Buffers are pooled by capacity. Released buffers are kept for reuse as long as the idle
+ * buffers stay within the budget; beyond it they are left to the garbage collector.
+ */
+class PartBufferPool {
+
+  private final boolean direct;
+  private final long maxIdleBytes;
+  private final Map<Integer, Queue<ByteBuffer>> idle = new ConcurrentHashMap<>();
+  private final AtomicLong idleBytes = new AtomicLong();
+
+  /**
+   * @param direct       whether to allocate direct buffers, heap buffers otherwise
+   * @param maxIdleBytes the maximum number of bytes of idle buffers kept for reuse
+   */
+  PartBufferPool(boolean direct, long maxIdleBytes) {
+    this.direct = direct;
+    this.maxIdleBytes = maxIdleBytes;
+  }
+
+  boolean isDirect() {
+    return direct;
+  }
+
+  /**
+   * Returns an empty buffer of the capacity, reused if an idle one is available.
+   */
+  ByteBuffer acquire(int capacity) {
+    var queue = idle.get(capacity);
+    var buffer = queue == null ? null : queue.poll();
+    if (buffer == null) {
+      return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+    idleBytes.addAndGet(-capacity);
+    return buffer.clear();
+  }
+
+  /**
+   * Returns the buffer to the pool. The buffer must not be used by the caller anymore.
+   */
+  void release(ByteBuffer buffer) {
+    int capacity = buffer.capacity();
+    if (idleBytes.addAndGet(capacity) > maxIdleBytes) {
+      idleBytes.addAndGet(-capacity);
+      return;
+    }
+    idle.computeIfAbsent(capacity, c -> new ConcurrentLinkedQueue<>()).offer(buffer);
+  }
+
+  /**
+   * @return the number of bytes of idle buffers held by the pool
+   */
+  long idleBytes() {
+    return idleBytes.get();
+  }
+}
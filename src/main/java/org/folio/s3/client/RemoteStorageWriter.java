@@ -4,7 +4,10 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 
 import org.apache.commons.io.FileUtils;
@@ -12,11 +15,19 @@ import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.folio.s3.exception.S3ClientException;
 
+/**
+ * Writer of text to a file on S3-compatible storage.
+ *
+ * <p>By default the text is buffered into a local temp file which is uploaded by
+ * {@link #close()}. Writers from {@link FolioS3Client#getStreamingRemoteStorageWriter(String)}
+ * encode the text straight into multipart upload parts instead, uploading each part as soon as
+ * it is full, so {@link #close()} only uploads the last part.
+ */
 public class RemoteStorageWriter extends StringWriter {
 
   private final File tmp;
   private final String path;
-  private final BufferedWriter writer;
+  private final Writer writer;
   private final FolioS3Client s3Client;
 
   public RemoteStorageWriter(String path, int size, FolioS3Client s3Client) {
@@ -33,8 +44,25 @@ public class RemoteStorageWriter extends StringWriter {
     }
   }
 
+  /**
+   * Creates a streaming writer encoding the text as UTF-8 into the output stream.
+   *
+   * @param path the path to the file on S3-compatible storage
+   * @param out  the stream uploading to the file, completing the upload when closed
+   */
+  RemoteStorageWriter(String path, S3OutputStream out) {
+    this.s3Client = null;
+    this.path = path;
+    this.tmp = null;
+    this.writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+  }
+
   @Override
   public void write(String data) {
+    if (tmp == null) {
+      writeStreaming(data);
+      return;
+    }
     if (StringUtils.isNotEmpty(data)) {
       try {
         writer.append(data);
@@ -46,8 +74,27 @@ public class RemoteStorageWriter extends StringWriter {
     }
   }
 
+  private void writeStreaming(String data) {
+    if (StringUtils.isEmpty(data)) {
+      return;
+    }
+    try {
+      writer.append(data);
+    } catch (IOException e) {
+      throw new S3ClientException("Error writing to " + path, e);
+    }
+  }
+
   @Override
   public void close() {
+    if (tmp == null) {
+      try {
+        writer.close();
+      } catch (IOException ex) {
+        throw new S3ClientException("Error while close(): " + ex.getMessage(), ex);
+      }
+      return;
+    }
     try {
       if (tmp.exists()) {
         writer.close();
@@ -67,4 +114,4 @@ public class RemoteStorageWriter extends StringWriter {
       throw new S3ClientException("Error in deleting file: " + ex.getMessage());
     }
   }
-}
\ No newline at end of file
+}
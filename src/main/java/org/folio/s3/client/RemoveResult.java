@@ -0,0 +1,25 @@
+package org.folio.s3.client;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a batch remove, keys that failed can be retried selectively.
+ *
+ * @param removed paths of the removed files
+ * @param failed  paths of the files that could not be removed, mapped to the error message
+ */
+public record RemoveResult(List<String> removed, Map<String, String> failed) {
+
+  public RemoveResult {
+    removed = List.copyOf(removed);
+    failed = Map.copyOf(failed);
+  }
+
+  /**
+   * @return whether any file could not be removed
+   */
+  public boolean hasFailures() {
+    return !failed.isEmpty();
+  }
+}
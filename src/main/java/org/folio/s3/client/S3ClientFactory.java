@@ -1,7 +1,20 @@
 package org.folio.s3.client;
 
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
 public class S3ClientFactory {
 
+    /**
+     * How long a shared client nobody holds is kept open.
+     */
+    private static final Duration SHARED_CLIENT_IDLE_TIMEOUT = Duration.ofMinutes(5);
+    private static final S3ClientRegistry REGISTRY = new S3ClientRegistry(S3ClientFactory::createClient,
+        SHARED_CLIENT_IDLE_TIMEOUT, System::nanoTime, Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+          .name("folio-s3-registry")
+          .daemon()
+          .factory()));
+
     private S3ClientFactory() {
     }
 
@@ -11,6 +24,48 @@ public class S3ClientFactory {
      * @return {@link AwsS3Client} if {@link S3ClientProperties}#isAwsSdk() is true, otherwise - {@link MinioS3Client}
      */
     public static FolioS3Client getS3Client(S3ClientProperties s3ClientProperties) {
+        return createClient(s3ClientProperties);
+    }
+
+    /**
+     * Returns {@link FolioS3AsyncClient} implementation based on value of {@link S3ClientProperties}#isAwsSdk() value
+     * @param s3ClientProperties - S3 client properties
+     * @return {@link AwsS3Client} if {@link S3ClientProperties}#isAwsSdk() is true, otherwise - {@link MinioS3Client}
+     */
+    public static FolioS3AsyncClient getS3AsyncClient(S3ClientProperties s3ClientProperties) {
+        return createClient(s3ClientProperties);
+    }
+
+    /**
+     * Returns a {@link FolioS3Client} shared by all callers with equal properties. Properties that differ only in
+     * {@link S3ClientProperties#getSubPath()} share one connection pool, SDK client and upload executor.
+     * Each call must be matched by exactly one {@link FolioS3Client#close()} of the returned client, which releases
+     * it; a shared client released by all callers is closed after being idle for 5 minutes.
+     * @param s3ClientProperties - S3 client properties
+     * @return the shared {@link AwsS3Client} or {@link MinioS3Client}
+     */
+    public static FolioS3Client getSharedS3Client(S3ClientProperties s3ClientProperties) {
+        return REGISTRY.acquire(s3ClientProperties);
+    }
+
+    /**
+     * Returns a {@link FolioS3AsyncClient} shared by all callers with equal properties, see
+     * {@link #getSharedS3Client(S3ClientProperties)}.
+     * @param s3ClientProperties - S3 client properties
+     * @return the shared {@link AwsS3Client} or {@link MinioS3Client}
+     */
+    public static FolioS3AsyncClient getSharedS3AsyncClient(S3ClientProperties s3ClientProperties) {
+        return REGISTRY.acquire(s3ClientProperties);
+    }
+
+    /**
+     * Closes all shared clients, including those still in use, for example on application shutdown.
+     */
+    public static void closeSharedClients() {
+        REGISTRY.closeAll();
+    }
+
+    private static AbstractS3Client createClient(S3ClientProperties s3ClientProperties) {
         if (s3ClientProperties.isAwsSdk()) {
             return new AwsS3Client(s3ClientProperties);
         } else {
@@ -4,7 +4,7 @@ import lombok.Builder;
 import lombok.Data;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class S3ClientProperties {
 
   /**
@@ -38,7 +38,8 @@ public class S3ClientProperties {
   private String secretKey;
 
   /**
-   * Key that enables files merging in storage with using AWS SDK capabilities.
+   * Selects {@link AwsS3Client}, which runs every operation on the AWS SDK, instead of
+   * {@link MinioS3Client}.
    */
   private boolean awsSdk;
 
@@ -48,13 +49,184 @@ public class S3ClientProperties {
   private boolean forcePathStyle;
 
   /**
-   * Maximum time, in seconds, that an idle HTTP connection in the OkHttp connection pool
-   * (used by the underlying Minio client) is kept alive before being evicted.
+   * Builds {@link AwsS3Client} on the AWS CRT-based S3 client instead of the Netty-based one. It
+   * splits object uploads and downloads into parallel part requests on its own, sized for
+   * {@link #targetThroughputInGbps}, so {@code upload} and {@code download} hand whole files to
+   * it. Requires {@code software.amazon.awssdk.crt:aws-crt} on the classpath, an optional
+   * dependency of this library. Of the transport properties only {@link #maxConnections} and
+   * {@link #connectTimeoutMillis} apply to it.
+   */
+  private boolean crtEnabled;
+
+  /**
+   * Target throughput, in gigabits per second, the CRT-based client sizes its parallel
+   * requests for. Only used if {@link #crtEnabled}.
+   *
+   * <p>If {@code null}, the SDK default of 10 Gbps is used.
+   */
+  private Double targetThroughputInGbps;
+
+  /**
+   * Minimum size, in bytes, of the parts the CRT-based client splits uploads and downloads into.
+   * Only used if {@link #crtEnabled}.
    *
-   * <p>If {@code null}, the OkHttp default of 5 minutes is used. Set this to a value smaller
+   * <p>If {@code null}, the SDK default of 8 MiB is used.
+   */
+  private Long minimumPartSizeInBytes;
+
+  /**
+   * Maximum time, in seconds, that an idle HTTP connection is kept in the connection pool
+   * before being evicted, by the OkHttp pool of {@link MinioS3Client} and the Netty pool of
+   * {@link AwsS3Client}.
+   *
+   * <p>If {@code null}, the SDK default is used: 5 minutes for OkHttp, 60 seconds for Netty. Set this to a value smaller
    * than the server-side idle timeout (AWS S3 closes idle connections after ~20s) to avoid
-   * "unexpected end of stream" / connection-reset errors, especially during multipart uploads
-   * — which always go through the Minio client, even when {@link AwsS3Client} is used.
+   * "unexpected end of stream" / connection-reset errors, especially during multipart uploads.
    */
   private Integer idleKeepAliveSeconds;
+
+  /**
+   * Maximum number of concurrent HTTP requests, and so of open connections, of the client. For
+   * {@link MinioS3Client} it is the OkHttp dispatcher limit and the number of idle connections
+   * kept in the pool; for {@link AwsS3Client} the Netty or CRT max concurrency. Should be at
+   * least the number of requests the client runs in parallel, such as {@link #maxPartsInFlight},
+   * otherwise they queue inside the HTTP client.
+   *
+   * <p>If {@code null}, the SDK defaults are used: 64 requests and 5 idle connections for
+   * OkHttp, 50 connections for Netty, a value derived from the target throughput for CRT.
+   */
+  private Integer maxConnections;
+
+  /**
+   * Maximum number of concurrent HTTP requests of {@link MinioS3Client} to one host, the OkHttp
+   * dispatcher limit that usually applies as all requests go to the storage endpoint. The AWS
+   * SDK client has no per-host limit, {@link #maxConnections} applies.
+   *
+   * <p>If {@code null}, {@link #maxConnections} is used if set, otherwise the OkHttp default
+   * of 5.
+   */
+  private Integer maxRequestsPerHost;
+
+  /**
+   * Timeout, in milliseconds, for establishing a new connection.
+   *
+   * <p>If {@code null}, the SDK default is used: 5 minutes for MinIO, 2 seconds for the AWS SDK.
+   */
+  private Long connectTimeoutMillis;
+
+  /**
+   * Timeout, in milliseconds, for reading from a connection, the maximum time waiting for
+   * response data.
+   *
+   * <p>If {@code null}, the SDK default is used: 5 minutes for MinIO, 30 seconds for the AWS
+   * SDK.
+   */
+  private Long readTimeoutMillis;
+
+  /**
+   * Timeout, in milliseconds, for writing to a connection, the maximum time a request body
+   * write may stall.
+   *
+   * <p>If {@code null}, the SDK default is used: 5 minutes for MinIO, 30 seconds for the AWS
+   * SDK.
+   */
+  private Long writeTimeoutMillis;
+
+  /**
+   * Timeout, in milliseconds, for a request of {@link AwsS3Client} to get a connection from
+   * the pool when all {@link #maxConnections} are in use. OkHttp queues such requests in its
+   * dispatcher without a timeout.
+   *
+   * <p>If {@code null}, the AWS SDK default of 10 seconds is used.
+   */
+  private Long connectionAcquisitionTimeoutMillis;
+
+  /**
+   * Whether TCP keep-alive probes (SO_KEEPALIVE) are enabled on the connections of both
+   * clients, so that connections dropped by a middlebox are detected while idle.
+   *
+   * <p>If {@code null}, the SDK default applies, TCP keep-alive is disabled.
+   */
+  private Boolean tcpKeepAlive;
+
+  /**
+   * Number of pooled connections the client opens when it is constructed, together with
+   * resolving the endpoint, fetching credentials and looking up the bucket region, so that the
+   * first requests don't pay for them. The warm-up runs in the background and only logs a
+   * failure; {@link FolioS3Client#warmUp()} runs it on demand.
+   *
+   * <p>If {@code null} or {@code 0}, the client is not warmed up at construction.
+   */
+  private Integer warmUpConnections;
+
+  /**
+   * Size, in bytes, of the part buffers used when streaming an input stream as a multipart
+   * upload. For streams of known size it is the lower bound, larger objects use larger parts.
+   *
+   * <p>If {@code null}, the S3 minimum part size of 5 MiB is used. Smaller values are raised to
+   * that minimum.
+   */
+  private Integer partSize;
+
+  /**
+   * Maximum number of parts of a single object that are buffered and uploaded concurrently.
+   * Together with {@link #partSize} it caps the memory held by one streaming upload. Also
+   * limits the byte ranges fetched concurrently by a download.
+   *
+   * <p>If {@code null}, 4 parts are used.
+   */
+  private Integer maxPartsInFlight;
+
+  /**
+   * Maximum number of DeleteObjects requests, of up to 1000 keys each, that a batch remove sends
+   * concurrently.
+   *
+   * <p>If {@code null}, 4 requests are used.
+   */
+  private Integer maxConcurrentDeletes;
+
+  /**
+   * Maximum number of part copy requests that a compose sends concurrently. The copies run
+   * server-side, so they hold no client memory.
+   *
+   * <p>If {@code null}, 8 requests are used.
+   */
+  private Integer maxConcurrentCopies;
+
+  /**
+   * Number of segments an {@link AppendLog} accumulates before it composes them into one in the
+   * background. Each append rewrites the manifest listing all segments, so lower values keep
+   * appends cheaper at the cost of more frequent compactions.
+   *
+   * <p>If {@code null}, 32 segments are used. Values below 2 are raised to 2.
+   */
+  private Integer appendLogCompactionThreshold;
+
+  /**
+   * Maximum number of bytes of idle part buffers the client keeps for reuse by later uploads.
+   * Buffers of all uploads of a client are borrowed from one pool; the AWS SDK client uses
+   * direct buffers, the MinIO client heap buffers because its SDK only sends byte arrays.
+   *
+   * <p>If {@code null}, 64 MiB are kept. {@code 0} disables reuse.
+   */
+  private Long bufferPoolSize;
+
+  /**
+   * Maximum number of bytes that all uploads of the client hold in part buffers at once. Uploads
+   * take the memory of a part before buffering it and give it back once the part is
+   * acknowledged; beyond the budget writers block, and asynchronous uploads wait without
+   * occupying a thread, until capacity frees up.
+   *
+   * <p>If {@code null}, memory is only limited per upload by {@link #maxPartsInFlight}.
+   */
+  private Long maxBufferedBytes;
+
+  /**
+   * Number of threads of the executor that reads input streams and local files for uploads,
+   * keeping that blocking I/O off the caller and SDK threads. The executor is created once per
+   * client and shut down by {@link FolioS3Client#close()}.
+   *
+   * <p>If {@code null}, twice the number of available processors is used.
+   */
+  private Integer uploadThreadPoolSize;
 }
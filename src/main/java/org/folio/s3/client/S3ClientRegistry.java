@@ -0,0 +1,158 @@
+package org.folio.s3.client;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Shares clients between callers with the same {@link S3ClientProperties}, used by
+ * {@link S3ClientFactory#getSharedS3Client(S3ClientProperties)}.
+ *
+ * <p>Properties that differ only in {@link S3ClientProperties#getSubPath()} share one transport:
+ * a client owning the SDK client, connection pool and upload executor. Each sub path gets a view
+ * of it, and identical properties get the same view. Every {@link #acquire} counts a reference
+ * to the transport that {@link FolioS3Client#close()} of the view releases; a transport without
+ * references is closed once it has been idle for the idle timeout.
+ */
+@Log4j2
+class S3ClientRegistry {
+
+  /**
+   * A client owning a transport and the views of its sub paths.
+   */
+  private static final class Transport {
+    private final AbstractS3Client client;
+    private final Map<String, AbstractS3Client> views = new HashMap<>();
+    private int references;
+    private long idleSince;
+
+    private Transport(AbstractS3Client client) {
+      this.client = client;
+    }
+  }
+
+  private final Function<S3ClientProperties, AbstractS3Client> factory;
+  private final long idleTimeoutNanos;
+  private final LongSupplier nanoTime;
+  private final ScheduledExecutorService scheduler;
+  private final Map<S3ClientProperties, Transport> transports = new HashMap<>();
+
+  /**
+   * @param factory     creates the client owning a transport, from properties without sub path
+   * @param idleTimeout how long a transport without references is kept
+   * @param nanoTime    the time source of the idle timeout
+   * @param scheduler   runs the eviction of idle transports, may be {@code null} to evict them
+   *                    only on {@link #acquire} and {@link #evictIdle()}
+   */
+  S3ClientRegistry(Function<S3ClientProperties, AbstractS3Client> factory, Duration idleTimeout,
+      LongSupplier nanoTime, ScheduledExecutorService scheduler) {
+    this.factory = factory;
+    this.idleTimeoutNanos = idleTimeout.toNanos();
+    this.nanoTime = nanoTime;
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * Returns the shared client for the properties, creating its transport if there is none. The
+   * caller must close the returned client exactly once.
+   */
+  AbstractS3Client acquire(S3ClientProperties properties) {
+    var key = properties.toBuilder().subPath(null).build();
+    AbstractS3Client view;
+    List<AbstractS3Client> evicted;
+    synchronized (this) {
+      evicted = removeIdle();
+      var transport = transports.get(key);
+      if (transport == null) {
+        log.info("Creating shared client of bucket {}", key.getBucket());
+        transport = new Transport(factory.apply(key));
+        transports.put(key, transport);
+      }
+      transport.references++;
+      var owner = transport;
+      view = transport.views.computeIfAbsent(properties.getSubPath(),
+          subPath -> owner.client.withSubPath(subPath, () -> release(key, owner)));
+    }
+    closeAll(evicted);
+    return view;
+  }
+
+  /**
+   * Closes the transports that have been idle for the idle timeout.
+   */
+  void evictIdle() {
+    List<AbstractS3Client> evicted;
+    synchronized (this) {
+      evicted = removeIdle();
+    }
+    closeAll(evicted);
+  }
+
+  /**
+   * Closes all transports, whether or not their views are still in use.
+   */
+  void closeAll() {
+    List<AbstractS3Client> closed;
+    synchronized (this) {
+      closed = transports.values().stream().map(transport -> transport.client).toList();
+      transports.clear();
+    }
+    closeAll(closed);
+  }
+
+  /**
+   * @return the number of open transports
+   */
+  synchronized int size() {
+    return transports.size();
+  }
+
+  private synchronized void release(S3ClientProperties key, Transport transport) {
+    if (transports.get(key) != transport || transport.references == 0) {
+      log.warn("Shared client of bucket {} is already released", key.getBucket());
+      return;
+    }
+    if (--transport.references == 0) {
+      transport.idleSince = nanoTime.getAsLong();
+      if (scheduler != null) {
+        scheduler.schedule(this::evictIdle, idleTimeoutNanos, TimeUnit.NANOSECONDS);
+      }
+    }
+  }
+
+  /**
+   * Must be called while holding the lock.
+   */
+  private List<AbstractS3Client> removeIdle() {
+    long now = nanoTime.getAsLong();
+    var evicted = new ArrayList<AbstractS3Client>();
+    var iterator = transports.entrySet().iterator();
+    while (iterator.hasNext()) {
+      var transport = iterator.next().getValue();
+      if (transport.references == 0 && now - transport.idleSince >= idleTimeoutNanos) {
+        iterator.remove();
+        evicted.add(transport.client);
+      }
+    }
+    return evicted;
+  }
+
+  private static void closeAll(List<AbstractS3Client> clients) {
+    for (var client : clients) {
+      log.info("Closing shared client of bucket {}", client.bucket);
+      try {
+        client.close();
+      } catch (RuntimeException e) {
+        log.warn("Cannot close shared client of bucket {}: {}", client.bucket, e.getMessage());
+      }
+    }
+  }
+}
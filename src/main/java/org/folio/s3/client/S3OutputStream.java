@@ -0,0 +1,374 @@
+package org.folio.s3.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * {@link OutputStream} that uploads written bytes to a file on S3-compatible storage as a
+ * multipart upload without knowing the total length upfront. Obtained from
+ * {@link FolioS3Client#getOutputStream(String)}.
+ *
+ * <p>Bytes are staged into fixed-size part buffers borrowed from the client's buffer pool. A
+ * full buffer is uploaded as the next part in the background while the following one is being
+ * filled, and goes back to the pool once its upload completes. At most
+ * {@code maxPartsInFlight} buffers exist at any time, writers block until an upload frees one,
+ * so memory use is capped at {@code partSize * maxPartsInFlight} whatever the object size.
+ * Every buffer is also taken from the client-wide memory budget and given back once its part is
+ * acknowledged, so writers block as well while all uploads of the client together hold the
+ * budget. Content that fits into a single part is stored with one PUT request instead.
+ *
+ * <p>{@link #close()} uploads the last part and completes the upload; the file is not visible
+ * before. Any failure aborts the multipart upload, after which the stream is unusable. The
+ * stream is not thread-safe.
+ */
+@Log4j2
+public class S3OutputStream extends OutputStream {
+
+  /**
+   * S3 limit of parts in a single multipart upload.
+   */
+  static final int MAX_PARTS = 10_000;
+
+  /**
+   * Number of parts that objects of known size aim for, so that large objects don't pay for
+   * thousands of requests of the minimum part size.
+   */
+  private static final int TARGET_PARTS = 1_000;
+
+  /**
+   * Largest part size chosen to reach {@link #TARGET_PARTS}; every part in flight is held in
+   * memory, so parts only grow beyond it when needed to stay within {@link #MAX_PARTS}.
+   */
+  private static final int MAX_TARGET_PART_SIZE = 64 * 1024 * 1024;
+
+  private static final int MIB = 1024 * 1024;
+
+  private final MultipartUploadTarget target;
+  private final int partSize;
+  private final Semaphore buffers;
+  private final PartBufferPool bufferPool;
+  private final MemoryBudget memoryBudget;
+  private final List<CompletableFuture<String>> parts = new ArrayList<>();
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+  private ByteBuffer buffer;
+  private String uploadId;
+  private boolean closed;
+  private volatile boolean capacityReserved;
+
+  S3OutputStream(MultipartUploadTarget target, int partSize, int maxPartsInFlight, PartBufferPool bufferPool,
+      MemoryBudget memoryBudget) {
+    if (partSize <= 0 || maxPartsInFlight <= 0) {
+      throw new IllegalArgumentException("partSize and maxPartsInFlight must be positive");
+    }
+    this.target = target;
+    this.partSize = partSize;
+    this.buffers = new Semaphore(maxPartsInFlight);
+    this.bufferPool = bufferPool;
+    this.memoryBudget = memoryBudget;
+  }
+
+  /**
+   * Takes the memory of the next part buffer from the client's budget without blocking, so that
+   * an asynchronous upload doesn't occupy a thread while it waits for capacity. The next buffer
+   * is then taken without waiting for the budget again.
+   *
+   * @return future completed once the capacity is reserved for this stream
+   */
+  CompletableFuture<Void> reserveCapacityAsync() {
+    return memoryBudget.acquireAsync(partSize)
+      .thenRun(() -> capacityReserved = true);
+  }
+
+  /**
+   * Picks the part size for an object of known size: about {@link #TARGET_PARTS} parts, but
+   * never less than {@code minPartSize} and never more parts than S3 allows. The result is
+   * rounded up to whole MiB.
+   *
+   * @param objectSize  the object size in bytes
+   * @param minPartSize the smallest part size to use
+   * @return the part size in bytes
+   */
+  static int partSizeFor(long objectSize, int minPartSize) {
+    long target = Math.min(ceilDiv(objectSize, TARGET_PARTS), MAX_TARGET_PART_SIZE);
+    long required = ceilDiv(objectSize, MAX_PARTS);
+    long partSize = ceilDiv(Math.max(minPartSize, Math.max(target, required)), MIB) * MIB;
+    if (partSize > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Object of %d bytes is too large for a multipart upload".formatted(objectSize));
+    }
+    return (int) partSize;
+  }
+
+  private static long ceilDiv(long x, long y) {
+    return -Math.floorDiv(-x, y);
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureOpen();
+    try {
+      currentBuffer().put((byte) b);
+      flushPartIfFull();
+    } catch (IOException | RuntimeException e) {
+      abort();
+      throw e;
+    }
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    Objects.checkFromIndexSize(off, len, b.length);
+    ensureOpen();
+    try {
+      while (len > 0) {
+        var buf = currentBuffer();
+        int n = Math.min(len, buf.remaining());
+        buf.put(b, off, n);
+        off += n;
+        len -= n;
+        flushPartIfFull();
+      }
+    } catch (IOException | RuntimeException e) {
+      abort();
+      throw e;
+    }
+  }
+
+  /**
+   * Reads the input stream to its end straight into the part buffers, avoiding the
+   * intermediate copy of {@link InputStream#transferTo(OutputStream)}.
+   *
+   * @param in the input stream to read from, not closed by this method
+   * @return the number of bytes transferred
+   */
+  long transferFrom(InputStream in) throws IOException {
+    return transferFrom(in, Long.MAX_VALUE);
+  }
+
+  /**
+   * Reads at most {@code limit} bytes of the input stream straight into the part buffers.
+   *
+   * @param in    the input stream to read from, not closed by this method
+   * @param limit the maximum number of bytes to read
+   * @return the number of bytes transferred, less than {@code limit} only if the stream ended
+   */
+  long transferFrom(InputStream in, long limit) throws IOException {
+    ensureOpen();
+    long total = 0;
+    try {
+      var channel = bufferPool.isDirect() ? Channels.newChannel(in) : null;
+      while (total < limit) {
+        var buf = currentBuffer();
+        int len = (int) Math.min(buf.remaining(), limit - total);
+        int n = channel == null ? readIntoArray(in, buf, len) : readIntoDirect(channel, buf, len);
+        total += n;
+        if (n < len) {
+          // readNBytes only returns less than requested at the end of the stream
+          return total;
+        }
+        flushPartIfFull();
+      }
+      return total;
+    } catch (IOException | RuntimeException e) {
+      abort();
+      throw e;
+    }
+  }
+
+  private static int readIntoArray(InputStream in, ByteBuffer buf, int len) throws IOException {
+    int n = in.readNBytes(buf.array(), buf.arrayOffset() + buf.position(), len);
+    buf.position(buf.position() + n);
+    return n;
+  }
+
+  /**
+   * Same contract as {@link InputStream#readNBytes(byte[], int, int)}: reads until {@code len}
+   * bytes are read or the stream ends.
+   */
+  private static int readIntoDirect(ReadableByteChannel channel, ByteBuffer buf, int len) throws IOException {
+    int limit = buf.limit();
+    buf.limit(buf.position() + len);
+    try {
+      int n = 0;
+      while (buf.hasRemaining()) {
+        int read = channel.read(buf);
+        if (read < 0) {
+          break;
+        }
+        n += read;
+      }
+      return n;
+    } finally {
+      buf.limit(limit);
+    }
+  }
+
+  /**
+   * Uploads the remaining buffered bytes and completes the multipart upload.
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      if (failure.get() != null) {
+        throw new IOException("Upload has been aborted", failure.get());
+      }
+      return;
+    }
+    try {
+      checkFailure();
+      if (uploadId == null) {
+        var data = buffer == null ? ByteBuffer.allocate(0) : buffer.flip();
+        await(target.putObject(data));
+      } else {
+        if (buffer != null && buffer.position() > 0) {
+          uploadPart();
+        }
+        List<String> eTags = new ArrayList<>(parts.size());
+        for (var part : parts) {
+          eTags.add(await(part));
+        }
+        await(target.completeMultipartUpload(uploadId, eTags));
+      }
+      closed = true;
+      releaseBuffer();
+    } catch (IOException | RuntimeException e) {
+      abort();
+      throw e;
+    }
+  }
+
+  /**
+   * Discards the buffered bytes and aborts the multipart upload, if one has been initiated, so
+   * that no file is created. The stream cannot be used afterwards.
+   */
+  public void abort() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    failure.compareAndSet(null, new IOException("Upload aborted"));
+    releaseBuffer();
+    if (uploadId == null) {
+      return;
+    }
+    // parts still in flight would be stored after the abort, so let them settle first
+    try {
+      CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new))
+        .exceptionally(e -> null)
+        .thenCompose(v -> target.abortMultipartUpload(uploadId))
+        .get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      // ignore, because it is most likely the same as the original failure (eg. network problem)
+      log.warn("Cannot abort multipart upload {}: {}", uploadId, e.getMessage());
+    }
+  }
+
+  private ByteBuffer currentBuffer() throws IOException {
+    if (buffer == null) {
+      checkFailure();
+      try {
+        buffers.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for a free part buffer");
+      }
+      // the stream's own window is taken first, so waiting for it never holds client-wide capacity
+      if (capacityReserved) {
+        capacityReserved = false;
+      } else {
+        try {
+          memoryBudget.acquire(partSize);
+        } catch (InterruptedException e) {
+          buffers.release();
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("Interrupted while waiting for upload memory");
+        }
+      }
+      buffer = bufferPool.acquire(partSize);
+    }
+    return buffer;
+  }
+
+  private void releaseBuffer() {
+    if (buffer != null) {
+      recycle(buffer);
+      buffer = null;
+    }
+    if (capacityReserved) {
+      capacityReserved = false;
+      memoryBudget.release(partSize);
+    }
+  }
+
+  private void recycle(ByteBuffer data) {
+    bufferPool.release(data);
+    memoryBudget.release(partSize);
+    buffers.release();
+  }
+
+  private void flushPartIfFull() throws IOException {
+    if (!buffer.hasRemaining()) {
+      uploadPart();
+    }
+  }
+
+  private void uploadPart() throws IOException {
+    checkFailure();
+    int partNumber = parts.size() + 1;
+    if (partNumber > MAX_PARTS) {
+      throw new IOException("Object exceeds %d parts of %d bytes".formatted(MAX_PARTS, partSize));
+    }
+    if (uploadId == null) {
+      uploadId = await(target.createMultipartUpload());
+    }
+    var data = buffer.flip();
+    buffer = null;
+    parts.add(target.uploadPart(uploadId, partNumber, data)
+      .whenComplete((eTag, e) -> {
+        recycle(data);
+        if (e != null) {
+          failure.compareAndSet(null, e);
+        }
+      }));
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+  }
+
+  private void checkFailure() throws IOException {
+    var e = failure.get();
+    if (e != null) {
+      throw new IOException("Part upload failed", e);
+    }
+  }
+
+  private static <T> T await(CompletableFuture<T> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for S3 response");
+    } catch (ExecutionException e) {
+      throw new IOException(e.getCause());
+    }
+  }
+}
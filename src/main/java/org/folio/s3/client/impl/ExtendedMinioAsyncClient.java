@@ -3,6 +3,8 @@ package org.folio.s3.client.impl;
 import com.google.common.collect.Multimap;
 import io.minio.AbortMultipartUploadResponse;
 import io.minio.CreateMultipartUploadResponse;
+import io.minio.DeleteObjectsResponse;
+import io.minio.ListObjectsV2Response;
 import io.minio.MinioAsyncClient;
 import io.minio.ObjectWriteResponse;
 import io.minio.UploadPartCopyResponse;
@@ -10,10 +12,12 @@ import io.minio.UploadPartResponse;
 import io.minio.errors.InsufficientDataException;
 import io.minio.errors.InternalException;
 import io.minio.errors.XmlParserException;
+import io.minio.messages.DeleteObject;
 import io.minio.messages.Part;
 import java.io.IOException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -103,4 +107,41 @@ public class ExtendedMinioAsyncClient extends MinioAsyncClient {
 
     return super.abortMultipartUploadAsync(bucketName, region, objectName, uploadId, extraHeaders, extraQueryParams);
   }
+
+  @Override
+  public CompletableFuture<ListObjectsV2Response> listObjectsV2Async(
+      String bucketName,
+      String region,
+      String delimiter,
+      String encodingType,
+      String startAfter,
+      Integer maxKeys,
+      String prefix,
+      String continuationToken,
+      boolean fetchOwner,
+      boolean includeUserMetadata,
+      Multimap<String, String> extraHeaders,
+      Multimap<String, String> extraQueryParams)
+          throws InsufficientDataException, InternalException, InvalidKeyException, IOException,
+          NoSuchAlgorithmException, XmlParserException {
+
+    return super.listObjectsV2Async(bucketName, region, delimiter, encodingType, startAfter, maxKeys, prefix,
+        continuationToken, fetchOwner, includeUserMetadata, extraHeaders, extraQueryParams);
+  }
+
+  @Override
+  public CompletableFuture<DeleteObjectsResponse> deleteObjectsAsync(
+      String bucketName,
+      String region,
+      List<DeleteObject> objectList,
+      boolean quiet,
+      boolean bypassGovernanceMode,
+      Multimap<String, String> extraHeaders,
+      Multimap<String, String> extraQueryParams)
+          throws InsufficientDataException, InternalException, InvalidKeyException, IOException,
+          NoSuchAlgorithmException, XmlParserException {
+
+    return super.deleteObjectsAsync(bucketName, region, objectList, quiet, bypassGovernanceMode, extraHeaders,
+        extraQueryParams);
+  }
 }
@@ -10,4 +10,8 @@ public class S3ClientException extends RuntimeException {
         super(message, e);
     }
 
+    public S3ClientException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
 }
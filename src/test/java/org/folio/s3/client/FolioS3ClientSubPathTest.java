@@ -87,6 +87,7 @@ class FolioS3ClientSubPathTest {
 
   @AfterAll
   public static void tearDown() {
+    CLIENTS.values().forEach(FolioS3Client::close);
     localstack.stop();
   }
 
@@ -5,6 +5,8 @@ import static java.lang.String.format;
 import static java.time.temporal.ChronoUnit.MINUTES;
 import static java.util.stream.Collectors.toList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -12,9 +14,15 @@ import static org.junit.jupiter.api.Assertions.fail;
 import static org.testcontainers.containers.localstack.LocalStackContainer.Service.S3;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -27,7 +35,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.stream.IntStream;
@@ -35,6 +45,7 @@ import java.util.stream.Stream;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.folio.s3.client.impl.ExtendedMinioAsyncClient;
 import org.folio.s3.exception.S3ClientException;
 import org.junit.jupiter.api.AfterAll;
@@ -113,6 +124,7 @@ class FolioS3ClientTest {
 
   @AfterAll
   public static void tearDown() {
+    CLIENTS.values().forEach(FolioS3Client::close);
     localstack.stop();
   }
 
@@ -212,6 +224,162 @@ class FolioS3ClientTest {
     s3Client.remove(expected);
   }
 
+  @DisplayName("=== Test write of known size in several parts ===")
+  @ParameterizedTest
+  @ArgumentsSource(ClientsProvider.class)
+  void testWriteKnownSizeMultipart(FolioS3Client s3Client) throws IOException {
+    s3Client.createBucketIfNotExists();
+    byte[] content = getRandomBytes(3 * MIN_MULTIPART_SIZE + 17);
+    var path = "multipart/known-size.bin";
+    // the trailing bytes beyond size must not be uploaded
+    var is = new ByteArrayInputStream(ArrayUtils.addAll(content, getRandomBytes(SMALL_SIZE)));
+
+    assertEquals(path, s3Client.write(path, is, content.length));
+
+    assertEquals(content.length, s3Client.getSize(path));
+    try (var read = s3Client.read(path)) {
+      assertTrue(Objects.deepEquals(content, read.readAllBytes()));
+    }
+
+    var shortStream = new ByteArrayInputStream(content);
+    assertThrows(S3ClientException.class, () -> s3Client.write("multipart/short.bin", shortStream, content.length + 1L));
+    assertTrue(s3Client.list("multipart/short.bin").isEmpty());
+
+    s3Client.remove(path);
+  }
+
+  @DisplayName("=== Test ranged read ===")
+  @ParameterizedTest
+  @ArgumentsSource(ClientsProvider.class)
+  void testRangedRead(FolioS3Client s3Client) throws IOException {
+    s3Client.createBucketIfNotExists();
+    byte[] content = getRandomBytes(SMALL_SIZE);
+    var path = "ranged/read.bin";
+    s3Client.write(path, new ByteArrayInputStream(content));
+
+    try (var is = s3Client.read(path, 100, 200)) {
+      assertTrue(Objects.deepEquals(Arrays.copyOfRange(content, 100, 300), is.readAllBytes()));
+    }
+    try (var is = s3Client.read(path, SMALL_SIZE - 10)) {
+      assertTrue(Objects.deepEquals(Arrays.copyOfRange(content, SMALL_SIZE - 10, SMALL_SIZE), is.readAllBytes()));
+    }
+    // the range is cut at the end of the object
+    try (var is = s3Client.read(path, SMALL_SIZE - 10, 100)) {
+      assertEquals(10, is.readAllBytes().length);
+    }
+    try (var is = s3Client.read(path, 0, 0)) {
+      assertEquals(0, is.readAllBytes().length);
+    }
+    assertThrows(IllegalArgumentException.class, () -> s3Client.read(path, -1, 10));
+
+    s3Client.remove(path);
+  }
+
+  @DisplayName("=== Test parallel download to a local file ===")
+  @ParameterizedTest
+  @ArgumentsSource(ClientsProvider.class)
+  void testDownload(FolioS3Client s3Client) throws IOException {
+    s3Client.createBucketIfNotExists();
+    byte[] content = getRandomBytes(2 * MIN_MULTIPART_SIZE + 3);
+    var path = "download/large.bin";
+    s3Client.write(path, new ByteArrayInputStream(content), content.length);
+    var target = Files.createTempFile("download", ".bin");
+    // existing content is replaced
+    Files.write(target, getRandomBytes(3 * MIN_MULTIPART_SIZE));
+
+    try {
+      assertEquals(target, s3Client.download(path, target));
+      assertTrue(Objects.deepEquals(content, Files.readAllBytes(target)));
+
+      s3Client.write("download/empty.bin", InputStream.nullInputStream());
+      s3Client.download("download/empty.bin", target);
+      assertEquals(0, Files.size(target));
+
+      // a missing object leaves the existing local file alone
+      Files.write(target, content);
+      assertThrows(S3ClientException.class, () -> s3Client.download("download/missing.bin", target));
+      assertTrue(Objects.deepEquals(content, Files.readAllBytes(target)));
+    } finally {
+      Files.deleteIfExists(target);
+      s3Client.remove(path, "download/empty.bin");
+    }
+  }
+
+  @DisplayName("=== Test download of an object that shrinks after its size is read ===")
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  void testDownloadShortRange(boolean isAwsSdk) throws IOException {
+    var properties = getS3ClientProperties(isAwsSdk, endpoint);
+    // the last range gets one byte less than requested, as if the object shrank meanwhile
+    try (AbstractS3Client s3Client = isAwsSdk
+        ? new AwsS3Client(properties) {
+          @Override
+          public CompletableFuture<Long> getSizeAsync(String path) {
+            return super.getSizeAsync(path).thenApply(size -> size + 1);
+          }
+        }
+        : new MinioS3Client(properties) {
+          @Override
+          public CompletableFuture<Long> getSizeAsync(String path) {
+            return super.getSizeAsync(path).thenApply(size -> size + 1);
+          }
+        }) {
+      s3Client.createBucketIfNotExists();
+      byte[] content = getRandomBytes(2 * MIN_MULTIPART_SIZE + 3);
+      var path = "download/shrinking.bin";
+      s3Client.write(path, new ByteArrayInputStream(content), content.length);
+      var target = Files.createTempFile("download", ".bin");
+
+      try {
+        var e = assertThrows(S3ClientException.class, () -> s3Client.download(path, target));
+        assertTrue(ExceptionUtils.getStackTrace(e).contains("bytes instead of"));
+        assertFalse(Files.exists(target));
+      } finally {
+        Files.deleteIfExists(target);
+        s3Client.remove(path);
+      }
+    }
+  }
+
+  @DisplayName("=== Test batch remove with result ===")
+  @ParameterizedTest
+  @ArgumentsSource(ClientsProvider.class)
+  void testRemoveAll(FolioS3Client s3Client) {
+    s3Client.createBucketIfNotExists();
+    var paths = IntStream.range(0, 5)
+      .mapToObj(i -> "remove-all/file" + i + ".txt")
+      .toList();
+    paths.forEach(p -> s3Client.write(p, new ByteArrayInputStream(getRandomBytes(SMALL_SIZE))));
+
+    var result = s3Client.removeAll(paths);
+
+    assertEquals(paths, result.removed());
+    assertTrue(result.failed().isEmpty());
+    assertTrue(s3Client.list("remove-all/").isEmpty());
+    assertTrue(s3Client.removeAll(List.of()).removed().isEmpty());
+  }
+
+  @DisplayName("=== Test recursive remove ===")
+  @ParameterizedTest
+  @ArgumentsSource(ClientsProvider.class)
+  void testRemoveRecursive(FolioS3Client s3Client) {
+    s3Client.createBucketIfNotExists();
+    var paths = List.of("remove-recursive/file1.txt", "remove-recursive/dir/file2.txt",
+        "remove-recursive/dir/sub/file3.txt", "remove-recursive-sibling/file4.txt");
+    paths.forEach(p -> s3Client.write(p, new ByteArrayInputStream(getRandomBytes(SMALL_SIZE))));
+    List<RemoveResult> results = new ArrayList<>();
+
+    assertEquals(3, s3Client.removeRecursive("remove-recursive/", results::add));
+
+    assertEquals(1, results.size());
+    assertEquals(3, results.get(0).removed().size());
+    assertTrue(s3Client.listRecursive("remove-recursive/").isEmpty());
+    assertEquals(List.of("remove-recursive-sibling/file4.txt"), s3Client.listRecursive("remove-recursive-sibling/"));
+    assertEquals(0, s3Client.removeRecursive("remove-recursive/"));
+
+    s3Client.remove("remove-recursive-sibling/file4.txt");
+  }
+
   @DisplayName("=== Test compose ===")
   @ParameterizedTest
   @ArgumentsSource(ClientsProvider.class)
@@ -252,6 +420,79 @@ class FolioS3ClientTest {
     }
   }
 
+  @DisplayName("=== Test compose of sources smaller than a part ===")
+  @ParameterizedTest
+  @ArgumentsSource(ClientsProvider.class)
+  void testComposeSmallSources(FolioS3Client s3Client) throws IOException {
+    s3Client.createBucketIfNotExists();
+    var sizes = List.of(SMALL_SIZE, LARGE_SIZE, SMALL_SIZE, SMALL_SIZE, 2 * LARGE_SIZE, 0, SMALL_SIZE);
+    var expected = new ByteArrayOutputStream();
+    var sourceObjects = new ArrayList<String>();
+    for (int i = 0; i < sizes.size(); i++) {
+      var content = getRandomBytes(sizes.get(i));
+      expected.writeBytes(content);
+      sourceObjects.add("compose/source" + i);
+      s3Client.write(sourceObjects.get(i), new ByteArrayInputStream(content), content.length);
+    }
+    var targetObject = "compose/combined";
+
+    try {
+      assertEquals(targetObject, s3Client.compose(targetObject, sourceObjects));
+      try (var is = s3Client.read(targetObject)) {
+        assertTrue(Objects.deepEquals(expected.toByteArray(), is.readAllBytes()));
+      }
+    } finally {
+      s3Client.remove(sourceObjects.toArray(String[]::new));
+      s3Client.remove(targetObject);
+    }
+  }
+
+  @DisplayName("=== Test append log with compaction ===")
+  @ParameterizedTest
+  @ArgumentsSource(ClientsProvider.class)
+  void testAppendLog(FolioS3Client s3Client) throws IOException {
+    s3Client.createBucketIfNotExists();
+    var path = "append-log/events.log";
+    var expected = new ByteArrayOutputStream();
+
+    try (var appendLog = s3Client.getAppendLog(path)) {
+      for (int i = 0; i < 40; i++) {
+        var content = getRandomBytes(SMALL_SIZE + i);
+        expected.writeBytes(content);
+        assertEquals(path, appendLog.append(content));
+      }
+      appendLog.compact();
+      assertEquals(expected.size(), appendLog.size());
+      try (var is = appendLog.read()) {
+        assertTrue(Objects.deepEquals(expected.toByteArray(), is.readAllBytes()));
+      }
+    }
+    // one compacted segment and the manifest remain
+    assertEquals(2, s3Client.listRecursive("append-log/").size());
+
+    try (var appendLog = s3Client.getAppendLog(path)) {
+      // a stream opened before compactions keeps the segments it reads
+      var before = expected.toByteArray();
+      try (var early = appendLog.read()) {
+        var content = getRandomBytes(LARGE_SIZE);
+        expected.writeBytes(content);
+        appendLog.append(new ByteArrayInputStream(content), content.length);
+        appendLog.compact();
+        content = getRandomBytes(SMALL_SIZE);
+        expected.writeBytes(content);
+        appendLog.append(content);
+        appendLog.compact();
+        assertTrue(Objects.deepEquals(before, early.readAllBytes()));
+      }
+      try (var is = appendLog.read()) {
+        assertTrue(Objects.deepEquals(expected.toByteArray(), is.readAllBytes()));
+      }
+      appendLog.delete();
+      assertEquals(0, appendLog.size());
+    }
+    assertEquals(List.of(), s3Client.listRecursive("append-log/"));
+  }
+
   @DisplayName("=== Test upload, read, delete file ===")
   @ParameterizedTest
   @ArgumentsSource(ClientsProvider.class)
@@ -295,6 +536,183 @@ class FolioS3ClientTest {
     Files.deleteIfExists(tempFilePath);
   }
 
+  @DisplayName("=== Test presigned URLs for every method ===")
+  @ParameterizedTest
+  @ArgumentsSource(ClientsProvider.class)
+  void testPresignedUrlMethods(FolioS3Client s3Client) throws IOException, InterruptedException {
+    s3Client.createBucketIfNotExists();
+    var path = "presigned/file.txt";
+    s3Client.write(path, new ByteArrayInputStream(getRandomBytes(SMALL_SIZE)), SMALL_SIZE);
+
+    try (var httpClient = HttpClient.newHttpClient()) {
+      for (var method : Method.values()) {
+        var link = s3Client.getPresignedUrl(path, method);
+        assertTrue(link.contains(path), method + " " + link);
+        assertTrue(link.contains("X-Amz-Signature="), method + " " + link);
+      }
+
+      var head = httpClient.send(HttpRequest.newBuilder(URI.create(s3Client.getPresignedUrl(path, Method.HEAD)))
+        .method("HEAD", HttpRequest.BodyPublishers.noBody())
+        .build(), HttpResponse.BodyHandlers.discarding());
+      assertEquals(200, head.statusCode());
+      assertEquals(String.valueOf(SMALL_SIZE), head.headers().firstValue("Content-Length").orElseThrow());
+    } finally {
+      s3Client.remove(path);
+    }
+  }
+
+  @DisplayName("=== Test parallel multipart upload of a large file ===")
+  @ParameterizedTest
+  @ArgumentsSource(ClientsProvider.class)
+  void testUploadLargeFile(FolioS3Client s3Client) throws IOException {
+    s3Client.createBucketIfNotExists();
+    byte[] content = getRandomBytes(2 * MIN_MULTIPART_SIZE + 5);
+    var fileOnStorage = "upload/large.bin";
+    var tempFile = Files.createTempFile("upload", ".bin");
+    Files.write(tempFile, content);
+
+    try {
+      assertEquals(fileOnStorage, s3Client.upload(tempFile.toString(), fileOnStorage));
+      assertEquals(content.length, s3Client.getSize(fileOnStorage));
+      try (var is = s3Client.read(fileOnStorage)) {
+        assertTrue(Objects.deepEquals(content, is.readAllBytes()));
+      }
+
+      var missing = tempFile.resolveSibling("missing.bin").toString();
+      assertThrows(S3ClientException.class, () -> s3Client.upload(missing, "upload/missing.bin"));
+      assertEquals(List.of(fileOnStorage), s3Client.list("upload/"));
+    } finally {
+      Files.deleteIfExists(tempFile);
+      s3Client.remove(fileOnStorage);
+    }
+  }
+
+  @DisplayName("=== Test warm-up of connections and credentials ===")
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  void testWarmUp(boolean isAwsSdk) {
+    CLIENTS.get(isAwsSdk).createBucketIfNotExists();
+    var properties = S3ClientProperties.builder()
+      .endpoint(endpoint)
+      .forcePathStyle(true)
+      .secretKey(secretKey)
+      .accessKey(accessKey)
+      .bucket(S3_BUCKET)
+      .awsSdk(isAwsSdk)
+      // MinIO looks up the bucket region during the warm-up
+      .region(isAwsSdk ? region : null)
+      .warmUpConnections(4)
+      .build();
+
+    try (var s3Client = S3ClientFactory.getS3Client(properties)) {
+      s3Client.warmUp();
+      assertNotNull(s3Client.list("warm-up/"));
+    }
+
+    var missingBucket = S3ClientProperties.builder()
+      .endpoint(endpoint)
+      .forcePathStyle(true)
+      .secretKey(secretKey)
+      .accessKey(accessKey)
+      .bucket("missing-bucket")
+      .region(region)
+      .awsSdk(isAwsSdk)
+      .build();
+    try (var s3Client = S3ClientFactory.getS3Client(missingBucket)) {
+      s3Client.warmUp();
+    }
+  }
+
+  @DisplayName("=== Test concurrent uploads sharing a small memory budget and few upload threads ===")
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  void testUploadsWithinMemoryBudget(boolean isAwsSdk) throws Exception {
+    CLIENTS.get(isAwsSdk).createBucketIfNotExists();
+    var properties = S3ClientProperties.builder()
+      .endpoint(endpoint)
+      .forcePathStyle(true)
+      .secretKey(secretKey)
+      .accessKey(accessKey)
+      .bucket(S3_BUCKET)
+      .awsSdk(isAwsSdk)
+      .region(region)
+      .partSize(MIN_MULTIPART_SIZE)
+      .maxBufferedBytes(2L * MIN_MULTIPART_SIZE)
+      .uploadThreadPoolSize(2)
+      .build();
+    byte[] content = getRandomBytes(3 * MIN_MULTIPART_SIZE + 1);
+    var file = Files.createTempFile("budget", ".bin");
+    Files.write(file, content);
+    var paths = new ArrayList<String>();
+
+    try (var s3Client = (AbstractS3Client) S3ClientFactory.getS3Client(properties)) {
+      var futures = new ArrayList<CompletableFuture<?>>();
+      // more uploads than upload threads, each needing more memory than the budget holds
+      for (int i = 0; i < 6; i++) {
+        var path = "budget/stream-" + i;
+        paths.add(path);
+        futures.add(s3Client.writeAsync(path, new ByteArrayInputStream(content), content.length));
+      }
+      var slicesPath = "budget/slices";
+      var uploadId = s3Client.initiateMultipartUpload(slicesPath);
+      var parts = IntStream.range(0, 3)
+        .mapToObj(i -> s3Client.uploadMultipartPartAsync(slicesPath, uploadId, i + 1, file.toString(),
+            (long) i * MIN_MULTIPART_SIZE, i < 2 ? MIN_MULTIPART_SIZE : MIN_MULTIPART_SIZE + 1))
+        .toList();
+      futures.addAll(parts);
+
+      CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(2, TimeUnit.MINUTES);
+      s3Client.completeMultipartUpload(slicesPath, uploadId, parts.stream().map(CompletableFuture::join).toList());
+      paths.add(slicesPath);
+
+      for (var path : paths) {
+        try (var is = s3Client.read(path)) {
+          assertTrue(Objects.deepEquals(content, is.readAllBytes()), path);
+        }
+      }
+      assertEquals(2L * MIN_MULTIPART_SIZE, s3Client.memoryBudget.available());
+      s3Client.remove(paths.toArray(String[]::new));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  @DisplayName("=== Test upload and download with the CRT-based AWS client ===")
+  void testCrtUploadDownload() throws IOException {
+    var properties = S3ClientProperties.builder()
+      .endpoint(endpoint)
+      .forcePathStyle(true)
+      .secretKey(secretKey)
+      .accessKey(accessKey)
+      .bucket(S3_BUCKET)
+      .awsSdk(true)
+      .crtEnabled(true)
+      .minimumPartSizeInBytes((long) MIN_MULTIPART_SIZE)
+      .region(region)
+      .build();
+    byte[] content = getRandomBytes(2 * MIN_MULTIPART_SIZE + 5);
+    var fileOnStorage = "crt/large.bin";
+    var source = Files.createTempFile("crt", ".bin");
+    var target = Files.createTempFile("crt", ".downloaded");
+    Files.write(source, content);
+
+    try (var s3Client = S3ClientFactory.getS3Client(properties)) {
+      s3Client.createBucketIfNotExists();
+      assertEquals(fileOnStorage, s3Client.upload(source.toString(), fileOnStorage));
+      assertEquals(content.length, s3Client.getSize(fileOnStorage));
+      assertEquals(target, s3Client.download(fileOnStorage, target));
+      assertTrue(Arrays.equals(content, Files.readAllBytes(target)));
+      // a missing object leaves the existing local file alone
+      assertThrows(S3ClientException.class, () -> s3Client.download("crt/missing.bin", target));
+      assertTrue(Arrays.equals(content, Files.readAllBytes(target)));
+      s3Client.remove(fileOnStorage);
+    } finally {
+      Files.deleteIfExists(source);
+      Files.deleteIfExists(target);
+    }
+  }
+
   @Deprecated
   @Disabled
   @ParameterizedTest
@@ -479,6 +897,54 @@ class FolioS3ClientTest {
     }
   }
 
+  @DisplayName("=== Test streaming remote storage writer ===")
+  @ParameterizedTest
+  @ArgumentsSource(ClientsProvider.class)
+  void testStreamingRemoteStorageWriter(FolioS3Client s3Client) throws IOException {
+    final String path = "streaming-writer/test.txt";
+    s3Client.createBucketIfNotExists();
+    var expected = new StringBuilder();
+
+    try (var writer = s3Client.getStreamingRemoteStorageWriter(path)) {
+      // several parts of non-ASCII text
+      while (expected.length() < 2 * LARGE_SIZE) {
+        var line = "line %d: äöü %s%n".formatted(expected.length(), StringUtils.repeat('x', SMALL_SIZE));
+        writer.write(line);
+        expected.append(line);
+      }
+    }
+
+    try (var is = s3Client.read(path)) {
+      assertEquals(expected.toString(), new String(is.readAllBytes(), StandardCharsets.UTF_8));
+    }
+    s3Client.remove(path);
+  }
+
+  @DisplayName("=== Test S3 output stream ===")
+  @ParameterizedTest
+  @ArgumentsSource(ClientsProvider.class)
+  void testOutputStream(FolioS3Client s3Client) throws IOException {
+    final String path = "output-stream/test.bin";
+    s3Client.createBucketIfNotExists();
+    byte[] content = getRandomBytes(2 * LARGE_SIZE);
+
+    try (var out = s3Client.getOutputStream(path)) {
+      out.write(content, 0, SMALL_SIZE);
+      out.write(content, SMALL_SIZE, content.length - SMALL_SIZE);
+    }
+
+    try (var is = s3Client.read(path)) {
+      assertTrue(Objects.deepEquals(content, is.readAllBytes()));
+    }
+
+    var aborted = s3Client.getOutputStream("output-stream/aborted.bin");
+    aborted.write(content);
+    aborted.abort();
+    assertTrue(s3Client.list("output-stream/aborted.bin").isEmpty());
+
+    s3Client.remove(path);
+  }
+
   @DisplayName("=== Test remote sorage writer failures ===")
   @Test
   void testFailsRemoteStorageWriter() {
@@ -572,6 +1038,36 @@ class FolioS3ClientTest {
     });
   }
 
+  @DisplayName("=== Test concurrent multipart upload of file slices ===")
+  @ParameterizedTest
+  @ArgumentsSource(ClientsProvider.class)
+  void testMultipartFileSlices(FolioS3Client s3Client) throws IOException {
+    s3Client.createBucketIfNotExists();
+    var fileOnStorage = "directory/sliced.bin";
+    byte[] content = getRandomBytes(2 * LARGE_SIZE + SMALL_SIZE);
+    var tempFile = Files.createTempFile("slices", ".bin");
+    Files.write(tempFile, content);
+
+    try {
+      String uploadId = s3Client.initiateMultipartUpload(fileOnStorage);
+      var eTags = IntStream.rangeClosed(1, 3)
+        .parallel()
+        .mapToObj(i -> s3Client.uploadMultipartPart(fileOnStorage, uploadId, i, tempFile.toString(),
+            (i - 1L) * LARGE_SIZE, i < 3 ? LARGE_SIZE : SMALL_SIZE))
+        .toList();
+      assertThrows(S3ClientException.class, () -> s3Client.uploadMultipartPart(fileOnStorage, uploadId, 4,
+          tempFile.toString(), content.length - 1L, 2));
+      s3Client.completeMultipartUpload(fileOnStorage, uploadId, eTags);
+
+      try (var is = s3Client.read(fileOnStorage)) {
+        assertTrue(Objects.deepEquals(content, is.readAllBytes()));
+      }
+    } finally {
+      Files.deleteIfExists(tempFile);
+      s3Client.remove(fileOnStorage);
+    }
+  }
+
   @DisplayName("=== Test list objects ===")
   @ParameterizedTest
   @ArgumentsSource(ClientsProvider.class)
@@ -633,6 +1129,56 @@ class FolioS3ClientTest {
     }
   }
 
+  @DisplayName("=== Test list objects with metadata ===")
+  @ParameterizedTest
+  @ArgumentsSource(ClientsProvider.class)
+  void testListObjectsWithMetadata(FolioS3Client s3Client) {
+    s3Client.createBucketIfNotExists();
+    s3Client.write("meta/object1.txt", new ByteArrayInputStream(getRandomBytes(SMALL_SIZE)));
+    s3Client.write("meta/dir/object2.txt", new ByteArrayInputStream(getRandomBytes(2 * SMALL_SIZE)));
+
+    var infos = s3Client.listWithMetadata("meta/");
+    assertEquals(List.of("meta/object1.txt", "meta/dir/"), infos.stream().map(ObjectInfo::key).toList());
+    var object = infos.get(0);
+    assertEquals(SMALL_SIZE, object.size());
+    assertNotNull(object.lastModified());
+    assertTrue(StringUtils.isNotBlank(object.etag()) && !object.etag().contains("\""));
+    assertTrue(infos.get(1).directory());
+
+    var recursive = s3Client.listRecursiveWithMetadata("meta/");
+    assertEquals(List.of("meta/dir/object2.txt", "meta/object1.txt"), recursive.stream().map(ObjectInfo::key).toList());
+    assertEquals(2 * SMALL_SIZE, recursive.get(0).size());
+
+    var page = s3Client.listWithMetadata("meta/", 1, "meta/object1.txt");
+    assertTrue(page.stream().noneMatch(info -> info.key().equals("meta/object1.txt")));
+
+    s3Client.remove("meta/object1.txt", "meta/dir/object2.txt");
+  }
+
+  @DisplayName("=== Test list objects as lazy stream ===")
+  @ParameterizedTest
+  @ArgumentsSource(ClientsProvider.class)
+  void testListObjectsAsStream(FolioS3Client s3Client) {
+    s3Client.createBucketIfNotExists();
+    var objects = List.of("stream/object1.txt", "stream/object2.txt", "stream/dir/object3.txt");
+    objects.forEach(k -> s3Client.write(k, new ByteArrayInputStream(getRandomBytes(SMALL_SIZE))));
+
+    try (var stream = s3Client.listAsStream("stream/")) {
+      assertEquals(List.of("stream/object1.txt", "stream/object2.txt", "stream/dir/"), stream.toList());
+    }
+    try (var stream = s3Client.listRecursiveAsStream("stream/")) {
+      assertEquals(List.of("stream/dir/object3.txt", "stream/object1.txt", "stream/object2.txt"), stream.toList());
+    }
+    try (var stream = s3Client.listRecursiveAsStream("stream/")) {
+      assertEquals(List.of("stream/dir/object3.txt"), stream.limit(1).toList());
+    }
+    try (var stream = s3Client.listAsStream("stream-missing/")) {
+      assertEquals(0, stream.count());
+    }
+
+    s3Client.remove(objects.toArray(String[]::new));
+  }
+
   @DisplayName("=== Test list objects with start after ===")
   @ParameterizedTest
   @ArgumentsSource(ClientsProvider.class)
@@ -671,6 +1217,59 @@ class FolioS3ClientTest {
     s3Client.remove(expectedObjects.toArray(new String[0]));
   }
 
+  @DisplayName("=== Test closed client ===")
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  void testClosedClient(boolean isAwsSdk) {
+    log.debug("=== testClosedClient: Test closed client ===");
+    var s3Client = S3ClientFactory.getS3Client(getS3ClientProperties(isAwsSdk, endpoint));
+    s3Client.createBucketIfNotExists();
+    byte[] content = getRandomBytes(SMALL_SIZE);
+    var path = "closed/object.txt";
+
+    // the upload executor and part buffers are reused across writes
+    for (int i = 0; i < 3; i++) {
+      assertEquals(path, s3Client.write(path, new ByteArrayInputStream(content), content.length));
+    }
+
+    s3Client.remove(path);
+    s3Client.close();
+
+    if (isAwsSdk) {
+      var stream = new ByteArrayInputStream(content);
+      assertThrows(S3ClientException.class, () -> s3Client.write(path, stream, content.length));
+    }
+  }
+
+  @DisplayName("=== Test async client ===")
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  void testAsyncClient(boolean isAwsSdk) throws IOException {
+    log.debug("=== testAsyncClient: Test async client ===");
+    CLIENTS.get(isAwsSdk).createBucketIfNotExists();
+    try (var s3Client = S3ClientFactory.getS3AsyncClient(getS3ClientProperties(isAwsSdk, endpoint))) {
+      byte[] content = getRandomBytes(SMALL_SIZE);
+      var paths = List.of("async/object1.txt", "async/object2.txt");
+
+      CompletableFuture.allOf(paths.stream()
+          .map(p -> s3Client.writeAsync(p, new ByteArrayInputStream(content)))
+          .toArray(CompletableFuture[]::new))
+        .join();
+
+      assertEquals(paths, s3Client.listAsync("async/").join());
+      assertEquals(paths, s3Client.listRecursiveAsync("async/").join());
+      assertEquals(SMALL_SIZE, s3Client.getSizeAsync(paths.get(0)).join().longValue());
+      try (var is = s3Client.readAsync(paths.get(1)).join()) {
+        assertTrue(Objects.deepEquals(content, is.readAllBytes()));
+      }
+
+      assertEquals(paths, s3Client.removeAsync(paths.toArray(String[]::new)).join());
+      var future = s3Client.getSizeAsync(paths.get(0));
+      var e = assertThrows(CompletionException.class, future::join);
+      assertInstanceOf(S3ClientException.class, e.getCause());
+    }
+  }
+
   @DisplayName("=== Test multipart exceptions ===")
   @ParameterizedTest
   @Disabled(value = "Too slow")
@@ -0,0 +1,80 @@
+package org.folio.s3.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link MemoryBudget}.
+ */
+class MemoryBudgetTest {
+
+  @Test
+  @DisplayName("Requests wait for released capacity in request order")
+  void grantsInOrder() {
+    var budget = new MemoryBudget(100);
+    assertTrue(budget.acquireAsync(60).isDone());
+
+    var large = budget.acquireAsync(80);
+    var small = budget.acquireAsync(10);
+    assertFalse(large.isDone());
+    // capacity is available, but the earlier request comes first
+    assertFalse(small.isDone());
+
+    budget.release(60);
+    assertTrue(large.isDone());
+    assertTrue(small.isDone());
+    assertEquals(10, budget.available());
+  }
+
+  @Test
+  @DisplayName("Cancelled requests don't hold back later ones")
+  void cancelledRequest() {
+    var budget = new MemoryBudget(100);
+    budget.acquireAsync(100);
+    var cancelled = budget.acquireAsync(100);
+    var waiting = budget.acquireAsync(50);
+
+    cancelled.cancel(false);
+    budget.release(50);
+
+    assertTrue(waiting.isDone());
+    assertEquals(0, budget.available());
+  }
+
+  @Test
+  @DisplayName("Requests larger than the budget take the whole budget")
+  void oversizedRequest() throws InterruptedException {
+    var budget = new MemoryBudget(100);
+    budget.acquire(1000);
+    assertEquals(0, budget.available());
+
+    budget.release(1000);
+    assertEquals(100, budget.available());
+  }
+
+  @Test
+  @DisplayName("Blocking acquire resumes once capacity is released")
+  void blockingAcquire() throws Exception {
+    var budget = new MemoryBudget(100);
+    budget.acquire(100);
+
+    var acquired = CompletableFuture.runAsync(() -> {
+      try {
+        budget.acquire(40);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    budget.release(100);
+
+    acquired.get(5, TimeUnit.SECONDS);
+    assertEquals(60, budget.available());
+  }
+}
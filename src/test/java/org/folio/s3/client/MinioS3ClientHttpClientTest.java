@@ -2,6 +2,7 @@ package org.folio.s3.client;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.lang.reflect.Field;
 import java.util.concurrent.TimeUnit;
@@ -13,8 +14,8 @@ import io.minio.MinioAsyncClient;
 import okhttp3.OkHttpClient;
 
 /**
- * Unit tests for the OkHttp connection-pool wiring driven by
- * {@link S3ClientProperties#getIdleKeepAliveSeconds()} in {@link MinioS3Client#createClient}.
+ * Unit tests for the OkHttp connection-pool, dispatcher and timeout wiring driven by the
+ * transport properties of {@link S3ClientProperties} in {@link MinioS3Client#createClient}.
  *
  * <p>Uses reflection to inspect the {@link OkHttpClient} instance held by the underlying
  * {@link MinioAsyncClient}, since neither minio-java nor OkHttp expose it publicly.
@@ -50,6 +51,53 @@ class MinioS3ClientHttpClientTest {
         "OkHttp keep-alive must match the configured idleKeepAliveSeconds");
   }
 
+  @Test
+  @DisplayName("OkHttp and MinIO defaults are kept when transport properties are not set")
+  void defaultTransportWhenPropertiesNotSet() throws Exception {
+    var okHttp = extractOkHttpClient(MinioS3Client.createClient(baseProps().build()));
+
+    assertEquals(64, okHttp.dispatcher().getMaxRequests());
+    assertEquals(5, okHttp.dispatcher().getMaxRequestsPerHost());
+    assertEquals(TimeUnit.MINUTES.toMillis(5), okHttp.connectTimeoutMillis());
+    assertEquals(TimeUnit.MINUTES.toMillis(5), okHttp.readTimeoutMillis());
+    assertEquals(TimeUnit.MINUTES.toMillis(5), okHttp.writeTimeoutMillis());
+  }
+
+  @Test
+  @DisplayName("maxConnections limits requests in flight, also per host unless maxRequestsPerHost is set")
+  void maxConnectionsAppliedToDispatcher() throws Exception {
+    var okHttp = extractOkHttpClient(MinioS3Client.createClient(baseProps().maxConnections(32).build()));
+
+    assertEquals(32, okHttp.dispatcher().getMaxRequests());
+    assertEquals(32, okHttp.dispatcher().getMaxRequestsPerHost());
+
+    okHttp = extractOkHttpClient(MinioS3Client.createClient(baseProps()
+        .maxConnections(32)
+        .maxRequestsPerHost(16)
+        .build()));
+
+    assertEquals(32, okHttp.dispatcher().getMaxRequests());
+    assertEquals(16, okHttp.dispatcher().getMaxRequestsPerHost());
+  }
+
+  @Test
+  @DisplayName("Timeouts and TCP keep-alive are applied when set")
+  void timeoutsAndTcpKeepAliveApplied() throws Exception {
+    var okHttp = extractOkHttpClient(MinioS3Client.createClient(baseProps()
+        .connectTimeoutMillis(1_000L)
+        .readTimeoutMillis(2_000L)
+        .writeTimeoutMillis(3_000L)
+        .tcpKeepAlive(true)
+        .build()));
+
+    assertEquals(1_000, okHttp.connectTimeoutMillis());
+    assertEquals(2_000, okHttp.readTimeoutMillis());
+    assertEquals(3_000, okHttp.writeTimeoutMillis());
+    try (var socket = okHttp.socketFactory().createSocket()) {
+      assertTrue(socket.getKeepAlive());
+    }
+  }
+
   /**
    * OkHttp 5 doesn't expose the keep-alive duration on the public {@link okhttp3.ConnectionPool}
    * API anymore, but {@code getDelegate$okhttp()} returns the {@code RealConnectionPool} which
@@ -0,0 +1,347 @@
+package org.folio.s3.client;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.folio.s3.client.MultipartComposer.Part;
+import org.folio.s3.client.MultipartComposer.Range;
+import org.folio.s3.client.MultipartComposer.Source;
+import org.folio.s3.exception.S3ClientException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link MultipartComposer} against an in-memory {@link MultipartUploadTarget}.
+ */
+class MultipartComposerTest {
+
+  private static final long GIB = 1024L * 1024 * 1024;
+  private static final String DESTINATION = "destination";
+
+  @Test
+  @DisplayName("Sources of at least the minimum part size are copied whole")
+  void planLargeSources() {
+    var parts = MultipartComposer.plan(List.of(new Source("a", 10), new Source("b", 20)), 10, 100);
+
+    assertEquals(List.of(Part.copy(new Range("a", 0, 10)), Part.copy(new Range("b", 0, 20))), parts);
+  }
+
+  @Test
+  @DisplayName("Sources larger than the maximum part size are split into even ranges")
+  void planSplitsHugeSource() {
+    var parts = MultipartComposer.plan(List.of(new Source("big", 12 * GIB + 1)), MultipartComposer.MIN_PART_SIZE,
+        MultipartComposer.MAX_PART_SIZE);
+
+    assertEquals(3, parts.size());
+    assertEquals(12 * GIB + 1, parts.stream().mapToLong(Part::length).sum());
+    for (int i = 0; i < parts.size(); i++) {
+      var range = parts.get(i).ranges().get(0);
+      assertTrue(parts.get(i).copy());
+      assertTrue(range.length() <= 5 * GIB);
+      assertTrue(range.length() >= 4 * GIB);
+      if (i > 0) {
+        var previous = parts.get(i - 1).ranges().get(0);
+        assertEquals(previous.offset() + previous.length(), range.offset());
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Adjacent small sources are downloaded together until they reach the minimum")
+  void planGroupsSmallSources() {
+    var parts = MultipartComposer.plan(List.of(new Source("a", 4), new Source("b", 0), new Source("c", 4),
+        new Source("d", 3), new Source("e", 12), new Source("f", 2)), 10, 100);
+
+    assertEquals(List.of(
+        Part.download(List.of(new Range("a", 0, 4), new Range("c", 0, 4), new Range("d", 0, 3))),
+        Part.copy(new Range("e", 0, 12)),
+        Part.download(List.of(new Range("f", 0, 2)))), parts);
+  }
+
+  @Test
+  @DisplayName("A small part is filled up with the head of a following large source")
+  void planFillsWithHeadOfLargeSource() {
+    var parts = MultipartComposer.plan(List.of(new Source("a", 3), new Source("b", 25), new Source("c", 3),
+        new Source("d", 12)), 10, 100);
+
+    assertEquals(List.of(
+        Part.download(List.of(new Range("a", 0, 3), new Range("b", 0, 7))),
+        Part.copy(new Range("b", 7, 18)),
+        Part.download(List.of(new Range("c", 0, 3), new Range("d", 0, 12)))), parts);
+  }
+
+  @Test
+  @DisplayName("Only empty sources make a single empty part")
+  void planEmptySources() {
+    assertEquals(List.of(Part.download(List.of())),
+        MultipartComposer.plan(List.of(new Source("a", 0), new Source("b", 0)), 10, 100));
+  }
+
+  @Test
+  @DisplayName("Copy source range is inclusive")
+  void copySourceRange() {
+    assertEquals("bytes=0-9", MultipartComposer.copySourceRange(0, 10));
+    assertEquals("bytes=10-10", MultipartComposer.copySourceRange(10, 1));
+  }
+
+  @Test
+  @DisplayName("Parts are copied or downloaded concurrently up to the parallelism and completed in order")
+  void composeInParallel() {
+    var storage = new InMemoryStorage();
+    var sources = new ArrayList<Source>();
+    for (int i = 0; i < 20; i++) {
+      var size = i % 3 == 0 ? 1024 : (int) MultipartComposer.MIN_PART_SIZE + i;
+      sources.add(storage.add("key-" + i, randomBytes(size)));
+    }
+    var budget = new MemoryBudget(3 * MultipartComposer.MIN_PART_SIZE);
+    var bufferPool = new PartBufferPool(false, 3 * MultipartComposer.MIN_PART_SIZE);
+
+    compose(storage, bufferPool, budget, sources).join();
+
+    assertArrayEquals(storage.concat(sources), storage.objects.get(DESTINATION));
+    assertTrue(storage.maxInFlight.get() <= 3);
+    assertTrue(storage.copies.get() > 0);
+    assertTrue(storage.uploads.get() > 0);
+    assertEquals(3 * MultipartComposer.MIN_PART_SIZE, budget.available());
+    // downloaded parts are buffered in the pool and returned to it
+    assertTrue(bufferPool.idleBytes() > 0);
+    assertTrue(storage.removed.isEmpty());
+  }
+
+  @Test
+  @DisplayName("Sources needing more parts than allowed are composed through intermediate objects")
+  void composeHierarchically() {
+    var storage = new InMemoryStorage();
+    var sources = new ArrayList<Source>();
+    for (int i = 0; i < 30; i++) {
+      sources.add(storage.add("key-" + i, randomBytes(10 + i % 3)));
+    }
+
+    new MultipartComposer(storage, 3, new PartBufferPool(false, 0), MemoryBudget.unlimited(), ForkJoinPool.commonPool())
+      .withLimits(10, 100, 4)
+      .compose(storage.target(DESTINATION), sources, "tmp")
+      .join();
+
+    assertArrayEquals(storage.concat(sources), storage.objects.get(DESTINATION));
+    assertTrue(storage.maxInFlight.get() <= 3);
+    // 30 parts -> 8 intermediates -> 2 intermediates -> destination
+    assertEquals(10, storage.removed.size());
+    assertTrue(storage.removed.stream().allMatch(path -> path.startsWith("tmp/")));
+    storage.removed.forEach(path -> assertNull(storage.objects.get(path)));
+    assertTrue(storage.aborted.isEmpty());
+  }
+
+  @Test
+  @DisplayName("Intermediate objects are removed when the compose fails")
+  void failedHierarchicalComposeRemovesIntermediates() {
+    var storage = new InMemoryStorage();
+    var sources = new ArrayList<Source>();
+    for (int i = 0; i < 10; i++) {
+      sources.add(storage.add("key-" + i, randomBytes(10)));
+    }
+    sources.add(new Source("missing", 10));
+
+    var future = new MultipartComposer(storage, 2, new PartBufferPool(false, 0), MemoryBudget.unlimited(), ForkJoinPool.commonPool())
+      .withLimits(10, 100, 4)
+      .compose(storage.target(DESTINATION), sources, "tmp");
+
+    assertThrows(CompletionException.class, future::join);
+    assertEquals(List.of("tmp/0-0", "tmp/0-1", "tmp/0-2"), storage.removed);
+    assertNull(storage.objects.get(DESTINATION));
+    assertFalse(storage.aborted.isEmpty());
+  }
+
+  @Test
+  @DisplayName("A failed part copy aborts the upload")
+  void failedCopyAborts() {
+    var storage = new InMemoryStorage();
+    var sources = List.of(storage.add("a", randomBytes((int) MultipartComposer.MIN_PART_SIZE)),
+        new Source("missing", MultipartComposer.MIN_PART_SIZE));
+
+    var future = compose(storage, new PartBufferPool(false, 0), MemoryBudget.unlimited(), sources);
+
+    var e = assertThrows(CompletionException.class, future::join);
+    assertInstanceOf(IllegalStateException.class, e.getCause());
+    assertEquals(List.of(DESTINATION), storage.aborted);
+    assertNull(storage.objects.get(DESTINATION));
+  }
+
+  @Test
+  @DisplayName("A compose whose intermediates would not shrink the part count is rejected")
+  void tooLargeToCompose() {
+    var storage = new InMemoryStorage();
+    var sources = Collections.nCopies(5, new Source("a", 1000));
+
+    var future = new MultipartComposer(storage, 2, new PartBufferPool(false, 0), MemoryBudget.unlimited(), ForkJoinPool.commonPool())
+      .withLimits(10, 100, 4)
+      .compose(storage.target(DESTINATION), sources, "tmp");
+
+    var e = assertThrows(CompletionException.class, future::join);
+    assertInstanceOf(S3ClientException.class, e.getCause());
+    assertEquals(0, storage.copies.get());
+  }
+
+  private static CompletableFuture<Void> compose(InMemoryStorage storage, PartBufferPool bufferPool,
+      MemoryBudget budget, List<Source> sources) {
+    return new MultipartComposer(storage, 3, bufferPool, budget, ForkJoinPool.commonPool())
+      .compose(storage.target(DESTINATION), sources, "tmp");
+  }
+
+  private static byte[] randomBytes(int size) {
+    var bytes = new byte[size];
+    ThreadLocalRandom.current().nextBytes(bytes);
+    return bytes;
+  }
+
+  private static class InMemoryStorage implements MultipartComposer.Storage {
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger copies = new AtomicInteger();
+    private final AtomicInteger uploads = new AtomicInteger();
+    private final List<String> aborted = new CopyOnWriteArrayList<>();
+    private final List<String> removed = new CopyOnWriteArrayList<>();
+
+    Source add(String path, byte[] content) {
+      objects.put(path, content);
+      return new Source(path, content.length);
+    }
+
+    byte[] concat(List<Source> sources) {
+      var out = new ByteArrayOutputStream();
+      sources.forEach(source -> out.writeBytes(objects.get(source.path())));
+      return out.toByteArray();
+    }
+
+    InMemoryTarget target(String path) {
+      return new InMemoryTarget(path);
+    }
+
+    @Override
+    public CompletableFuture<InputStream> read(String path, long offset, long length) {
+      var source = objects.get(path);
+      if (source == null) {
+        return CompletableFuture.failedFuture(new IllegalStateException("No such key: " + path));
+      }
+      return CompletableFuture.completedFuture(
+          new ByteArrayInputStream(source, (int) offset, (int) Math.min(length, source.length - offset)));
+    }
+
+    @Override
+    public MultipartUploadTarget uploadTarget(String path) {
+      return target(path);
+    }
+
+    @Override
+    public CompletableFuture<RemoveResult> remove(List<String> paths) {
+      paths.forEach(objects::remove);
+      removed.addAll(paths);
+      return CompletableFuture.completedFuture(new RemoveResult(paths, Map.of()));
+    }
+
+    private class InMemoryTarget implements MultipartUploadTarget {
+      private final String path;
+      private final Map<Integer, byte[]> parts = new ConcurrentSkipListMap<>();
+
+      InMemoryTarget(String path) {
+        this.path = path;
+      }
+
+      @Override
+      public CompletableFuture<Void> putObject(ByteBuffer data) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public CompletableFuture<Void> putObject(Path file) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public CompletableFuture<String> createMultipartUpload() {
+        return CompletableFuture.completedFuture("upload-" + path);
+      }
+
+      @Override
+      public CompletableFuture<String> uploadPart(String uploadId, int partNumber, ByteBuffer data) {
+        uploads.incrementAndGet();
+        return runPart(partNumber, () -> {
+          var bytes = new byte[data.remaining()];
+          data.get(bytes);
+          return bytes;
+        });
+      }
+
+      @Override
+      public CompletableFuture<String> uploadPart(String uploadId, int partNumber, Path file, long offset,
+          long length) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public CompletableFuture<String> uploadPartCopy(String uploadId, int partNumber, String sourcePath,
+          long offset, long length) {
+        copies.incrementAndGet();
+        return runPart(partNumber, () -> {
+          var source = objects.get(sourcePath);
+          if (source == null) {
+            throw new IllegalStateException("No such key: " + sourcePath);
+          }
+          return Arrays.copyOfRange(source, (int) offset, (int) (offset + length));
+        });
+      }
+
+      private CompletableFuture<String> runPart(int partNumber, Supplier<byte[]> content) {
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        return CompletableFuture.supplyAsync(() -> {
+          try {
+            parts.put(partNumber, content.get());
+            return "etag-" + partNumber;
+          } finally {
+            inFlight.decrementAndGet();
+          }
+        });
+      }
+
+      @Override
+      public CompletableFuture<Void> completeMultipartUpload(String uploadId, List<String> partETags) {
+        assertEquals(parts.size(), partETags.size());
+        var out = new ByteArrayOutputStream();
+        parts.values().forEach(out::writeBytes);
+        objects.put(path, out.toByteArray());
+        return CompletableFuture.completedFuture(null);
+      }
+
+      @Override
+      public CompletableFuture<Void> abortMultipartUpload(String uploadId) {
+        aborted.add(path);
+        return CompletableFuture.completedFuture(null);
+      }
+    }
+  }
+}
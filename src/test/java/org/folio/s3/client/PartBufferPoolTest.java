@@ -0,0 +1,48 @@
+package org.folio.s3.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link PartBufferPool}.
+ */
+class PartBufferPoolTest {
+
+  @Test
+  @DisplayName("Released buffers are reused for the same capacity")
+  void reusesBuffers() {
+    var pool = new PartBufferPool(true, 1024);
+    var buffer = pool.acquire(512);
+    assertTrue(buffer.isDirect());
+    buffer.put((byte) 1);
+
+    pool.release(buffer);
+    assertEquals(512, pool.idleBytes());
+
+    var reused = pool.acquire(512);
+    assertSame(buffer, reused);
+    assertEquals(0, reused.position());
+    assertEquals(0, pool.idleBytes());
+    assertNotSame(reused, pool.acquire(256));
+  }
+
+  @Test
+  @DisplayName("Idle buffers beyond the budget are dropped")
+  void keepsIdleBuffersWithinBudget() {
+    var pool = new PartBufferPool(false, 1024);
+    var buffers = List.of(pool.acquire(512), pool.acquire(512), pool.acquire(512));
+
+    for (var buffer : buffers) {
+      pool.release(buffer);
+    }
+
+    assertEquals(1024, pool.idleBytes());
+  }
+}
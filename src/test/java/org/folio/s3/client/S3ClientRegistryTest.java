@@ -0,0 +1,138 @@
+package org.folio.s3.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the sharing, reference counting and idle eviction of {@link S3ClientRegistry}.
+ * The MinIO clients are never connected, creating them sends no request.
+ */
+class S3ClientRegistryTest {
+
+  private static final Duration IDLE_TIMEOUT = Duration.ofMinutes(5);
+
+  private final AtomicLong now = new AtomicLong();
+  private final List<AbstractS3Client> created = new ArrayList<>();
+  private final S3ClientRegistry registry = new S3ClientRegistry(properties -> {
+    var client = new MinioS3Client(properties);
+    created.add(client);
+    return client;
+  }, IDLE_TIMEOUT, now::get, null);
+
+  @AfterEach
+  void closeAll() {
+    registry.closeAll();
+  }
+
+  @Test
+  @DisplayName("Equal properties return the same client")
+  void equalPropertiesShareClient() {
+    var first = registry.acquire(props("bucket", "tenant1"));
+    var second = registry.acquire(props("bucket", "tenant1"));
+
+    assertSame(first, second);
+    assertEquals(1, created.size());
+  }
+
+  @Test
+  @DisplayName("Properties differing only in subPath share one transport")
+  void subPathsShareTransport() {
+    var tenant1 = registry.acquire(props("bucket", "tenant1"));
+    var tenant2 = registry.acquire(props("bucket", "tenant2"));
+    var root = registry.acquire(props("bucket", null));
+
+    assertNotSame(tenant1, tenant2);
+    assertEquals("tenant1", tenant1.subPath);
+    assertEquals("tenant2", tenant2.subPath);
+    assertNull(root.subPath);
+    assertEquals(1, created.size());
+    assertEquals(1, registry.size());
+    assertSame(created.get(0).executor, tenant1.executor);
+    assertSame(created.get(0).bufferPool, tenant2.bufferPool);
+  }
+
+  @Test
+  @DisplayName("Other properties get their own transport")
+  void otherPropertiesGetOwnTransport() {
+    registry.acquire(props("bucket1", "tenant1"));
+    registry.acquire(props("bucket2", "tenant1"));
+
+    assertEquals(2, created.size());
+    assertEquals(2, registry.size());
+  }
+
+  @Test
+  @DisplayName("Closing a view keeps the transport open until all references are released and it has been idle")
+  void releasedTransportEvictedAfterIdleTimeout() {
+    var first = registry.acquire(props("bucket", "tenant1"));
+    var second = registry.acquire(props("bucket", "tenant2"));
+    var transport = created.get(0);
+
+    first.close();
+    now.addAndGet(IDLE_TIMEOUT.toNanos());
+    registry.evictIdle();
+    assertEquals(1, registry.size());
+    assertFalse(transport.executor.isShutdown());
+
+    second.close();
+    now.addAndGet(IDLE_TIMEOUT.toNanos() - 1);
+    registry.evictIdle();
+    assertEquals(1, registry.size());
+
+    now.incrementAndGet();
+    registry.evictIdle();
+    assertEquals(0, registry.size());
+    assertTrue(transport.executor.isShutdown());
+  }
+
+  @Test
+  @DisplayName("An idle transport acquired again before the idle timeout is reused")
+  void idleTransportReused() {
+    registry.acquire(props("bucket", "tenant1")).close();
+    now.addAndGet(IDLE_TIMEOUT.toNanos() - 1);
+
+    var client = registry.acquire(props("bucket", "tenant1"));
+    now.addAndGet(IDLE_TIMEOUT.toNanos());
+    registry.evictIdle();
+
+    assertEquals(1, created.size());
+    assertEquals(1, registry.size());
+    assertFalse(client.executor.isShutdown());
+  }
+
+  @Test
+  @DisplayName("An evicted transport is created again on the next acquire")
+  void evictedTransportRecreated() {
+    registry.acquire(props("bucket", "tenant1")).close();
+    now.addAndGet(IDLE_TIMEOUT.toNanos());
+
+    registry.acquire(props("bucket", "tenant1"));
+
+    assertEquals(2, created.size());
+    assertTrue(created.get(0).executor.isShutdown());
+    assertFalse(created.get(1).executor.isShutdown());
+  }
+
+  private static S3ClientProperties props(String bucket, String subPath) {
+    return S3ClientProperties.builder()
+      .endpoint("http://localhost:9000")
+      .accessKey("accessKey")
+      .secretKey("secretKey")
+      .bucket(bucket)
+      .subPath(subPath)
+      .build();
+  }
+}
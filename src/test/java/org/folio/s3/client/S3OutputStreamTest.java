@@ -0,0 +1,248 @@
+package org.folio.s3.client;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link S3OutputStream} against an in-memory {@link MultipartUploadTarget}.
+ */
+class S3OutputStreamTest {
+
+  private static final int PART_SIZE = 1024;
+  private static final PartBufferPool HEAP_POOL = new PartBufferPool(false, 0);
+
+  @Test
+  @DisplayName("Content smaller than a part is stored with a single PUT")
+  void smallContentUsesSinglePut() throws IOException {
+    var target = new InMemoryTarget();
+    var content = randomBytes(PART_SIZE - 1);
+
+    try (var out = new S3OutputStream(target, PART_SIZE, 2, HEAP_POOL, MemoryBudget.unlimited())) {
+      out.transferFrom(new ByteArrayInputStream(content));
+    }
+
+    assertArrayEquals(content, target.stored);
+    assertNull(target.uploadId);
+  }
+
+  @Test
+  @DisplayName("Empty content is stored as an empty object")
+  void emptyContent() throws IOException {
+    var target = new InMemoryTarget();
+
+    new S3OutputStream(target, PART_SIZE, 2, HEAP_POOL, MemoryBudget.unlimited()).close();
+
+    assertArrayEquals(new byte[0], target.stored);
+  }
+
+  @Test
+  @DisplayName("Large content is split into parts and completed in order")
+  void largeContentUsesMultipart() throws IOException {
+    var target = new InMemoryTarget();
+    var content = randomBytes(PART_SIZE * 5 + 7);
+
+    try (var out = new S3OutputStream(target, PART_SIZE, 2, HEAP_POOL, MemoryBudget.unlimited())) {
+      out.write(content, 0, 10);
+      out.transferFrom(new ByteArrayInputStream(content, 10, content.length - 10));
+    }
+
+    assertEquals(6, target.parts.size());
+    assertArrayEquals(content, target.stored);
+    assertTrue(target.maxInFlight.get() <= 2, "no more than 2 parts may be in flight");
+  }
+
+  @Test
+  @DisplayName("Direct pooled buffers are reused across streams")
+  void directPooledBuffers() throws IOException {
+    var pool = new PartBufferPool(true, 4L * PART_SIZE);
+    var content = randomBytes(PART_SIZE * 3 + 5);
+
+    for (int i = 0; i < 2; i++) {
+      var target = new InMemoryTarget();
+      try (var out = new S3OutputStream(target, PART_SIZE, 2, pool, MemoryBudget.unlimited())) {
+        out.write(content, 0, 3);
+        out.transferFrom(new ByteArrayInputStream(content, 3, content.length - 3));
+      }
+      assertArrayEquals(content, target.stored);
+      assertTrue(pool.idleBytes() > 0 && pool.idleBytes() <= 4L * PART_SIZE);
+    }
+  }
+
+  @Test
+  @DisplayName("Part buffers are taken from the memory budget until acknowledged")
+  void memoryBudget() throws IOException {
+    var budget = new MemoryBudget(PART_SIZE * 2L);
+    var target = new InMemoryTarget();
+
+    var out = new S3OutputStream(target, PART_SIZE, 4, HEAP_POOL, budget);
+    out.reserveCapacityAsync().join();
+    assertEquals(PART_SIZE, budget.available());
+    out.transferFrom(new ByteArrayInputStream(randomBytes(PART_SIZE * 5)));
+    out.close();
+
+    assertEquals(5, target.parts.size());
+    assertEquals(PART_SIZE * 2L, budget.available());
+  }
+
+  @Test
+  @DisplayName("Failed part aborts the multipart upload")
+  void failedPartAbortsUpload() {
+    InMemoryTarget target = new InMemoryTarget() {
+      @Override
+      public CompletableFuture<String> uploadPart(String uploadId, int partNumber, ByteBuffer data) {
+        return partNumber == 2
+          ? CompletableFuture.failedFuture(new IllegalStateException("greetings from mock"))
+          : super.uploadPart(uploadId, partNumber, data);
+      }
+    };
+    var content = randomBytes(PART_SIZE * 4);
+
+    var out = new S3OutputStream(target, PART_SIZE, 1, HEAP_POOL, MemoryBudget.unlimited());
+    assertThrows(IOException.class, () -> {
+      out.transferFrom(new ByteArrayInputStream(content));
+      out.close();
+    });
+
+    assertTrue(target.aborted.get());
+    assertNull(target.stored);
+    assertThrows(IOException.class, out::close);
+  }
+
+  @Test
+  @DisplayName("Abort discards the content and stores nothing")
+  void abortStoresNothing() throws IOException {
+    var target = new InMemoryTarget();
+    var out = new S3OutputStream(target, PART_SIZE, 2, HEAP_POOL, MemoryBudget.unlimited());
+    out.write(randomBytes(PART_SIZE * 2 + 1));
+
+    out.abort();
+
+    assertTrue(target.aborted.get());
+    assertNull(target.stored);
+    assertThrows(IOException.class, () -> out.write(1));
+    assertThrows(IOException.class, out::close);
+  }
+
+  @Test
+  @DisplayName("Transfer stops at the limit")
+  void transferStopsAtLimit() throws IOException {
+    var target = new InMemoryTarget();
+    var content = randomBytes(PART_SIZE * 3);
+
+    try (var out = new S3OutputStream(target, PART_SIZE, 2, HEAP_POOL, MemoryBudget.unlimited())) {
+      assertEquals(PART_SIZE * 2 + 1, out.transferFrom(new ByteArrayInputStream(content), PART_SIZE * 2 + 1));
+    }
+
+    assertArrayEquals(Arrays.copyOf(content, PART_SIZE * 2 + 1), target.stored);
+  }
+
+  @Test
+  @DisplayName("Part size grows with the object size within S3 limits")
+  void partSizeFor() {
+    int mib = 1024 * 1024;
+    assertEquals(5 * mib, S3OutputStream.partSizeFor(1, 5 * mib));
+    assertEquals(5 * mib, S3OutputStream.partSizeFor(5L * 1000 * mib, 5 * mib));
+    assertEquals(10 * mib, S3OutputStream.partSizeFor(10L * 1000 * mib, 5 * mib));
+    assertEquals(64 * mib, S3OutputStream.partSizeFor(100L * 1000 * mib, 5 * mib));
+    // 5 TiB must stay within 10,000 parts
+    int partSize = S3OutputStream.partSizeFor(5L * 1024 * 1024 * mib, 5 * mib);
+    assertTrue(5L * 1024 * 1024 * mib <= (long) partSize * S3OutputStream.MAX_PARTS);
+  }
+
+  private static byte[] randomBytes(int size) {
+    var bytes = new byte[size];
+    ThreadLocalRandom.current().nextBytes(bytes);
+    return bytes;
+  }
+
+  private static class InMemoryTarget implements MultipartUploadTarget {
+    private final Map<Integer, byte[]> parts = new ConcurrentSkipListMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicBoolean aborted = new AtomicBoolean();
+    private String uploadId;
+    private byte[] stored;
+
+    @Override
+    public CompletableFuture<Void> putObject(ByteBuffer data) {
+      stored = toBytes(data);
+      return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> putObject(Path file) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CompletableFuture<String> createMultipartUpload() {
+      uploadId = "upload-id";
+      return CompletableFuture.completedFuture(uploadId);
+    }
+
+    @Override
+    public CompletableFuture<String> uploadPart(String uploadId, int partNumber, ByteBuffer data) {
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      return CompletableFuture.supplyAsync(() -> {
+        parts.put(partNumber, toBytes(data));
+        inFlight.decrementAndGet();
+        return "etag-" + partNumber;
+      });
+    }
+
+    @Override
+    public CompletableFuture<String> uploadPart(String uploadId, int partNumber, Path file, long offset,
+        long length) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CompletableFuture<String> uploadPartCopy(String uploadId, int partNumber, String sourceKey, long offset,
+        long length) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CompletableFuture<Void> completeMultipartUpload(String uploadId, List<String> partETags) {
+      assertFalse(aborted.get());
+      assertEquals(parts.size(), partETags.size());
+      var out = new ByteArrayOutputStream();
+      parts.values().forEach(out::writeBytes);
+      stored = out.toByteArray();
+      return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> abortMultipartUpload(String uploadId) {
+      aborted.set(true);
+      return CompletableFuture.completedFuture(null);
+    }
+
+    private static byte[] toBytes(ByteBuffer data) {
+      var bytes = new byte[data.remaining()];
+      data.get(bytes);
+      return bytes;
+    }
+  }
+}